@@ -0,0 +1,176 @@
+package dev.krutz.mc.skyblock;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bukkit.Material;
+
+/**
+ * An in-memory world made of 16x16x16 sections, for running island scoring, clearing and building
+ * against synthetic worlds without a server. Sections that hold a single block type are stored as
+ * that type alone, like a single-entry palette, and are reported through getUniformSectionType.
+ * Reads may happen from several threads once the world is no longer written to.
+ */
+public class ArrayBlockWorld implements BlockSource, BlockSink {
+    // Constants that are not configurable
+    private static final int BLOCKS_PER_CHUNK = 16;
+    private static final int BLOCKS_PER_SECTION = BLOCKS_PER_CHUNK * BLOCKS_PER_CHUNK * BLOCKS_PER_CHUNK;
+
+    // Instance variables
+    private final int minHeight;
+    private final int maxHeight;
+    private final Map<Long, Section> sections = new HashMap<>(); // Missing sections are air
+
+    /**
+     * Create an empty world
+     * @param minHeight Lowest y coordinate, must be a multiple of 16
+     * @param maxHeight Height limit, must be a multiple of 16
+     */
+    public ArrayBlockWorld(int minHeight, int maxHeight) {
+        this.minHeight = minHeight;
+        this.maxHeight = maxHeight;
+    }
+
+    @Override
+    public int getMinHeight() {
+        return minHeight;
+    }
+
+    @Override
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    @Override
+    public Material getBlockType(int x, int y, int z) {
+        if (y < minHeight || y >= maxHeight) {
+            return Material.AIR;
+        }
+
+        Section section = sections.get(sectionKey(x >> 4, sectionIndex(y), z >> 4));
+        if (section == null) {
+            return Material.AIR;
+        }
+        if (section.blocks == null) {
+            return section.uniformType;
+        }
+        return Island.getMaterial(section.blocks[blockIndex(x, y, z)]);
+    }
+
+    @Override
+    public void setBlockType(int x, int y, int z, Material type) {
+        if (y < minHeight || y >= maxHeight) {
+            return;
+        }
+
+        long key = sectionKey(x >> 4, sectionIndex(y), z >> 4);
+        Section section = sections.get(key);
+        if (section == null) {
+            if (type == Material.AIR) {
+                return;
+            }
+            section = new Section(Material.AIR);
+            sections.put(key, section);
+        }
+
+        if (section.blocks == null) {
+            if (section.uniformType == type) {
+                return;
+            }
+            section.expand();
+        }
+        section.blocks[blockIndex(x, y, z)] = (short) type.ordinal();
+    }
+
+    /**
+     * Fill a box with a block type. Sections covered entirely are stored as a single block type.
+     * @param minX
+     * @param minY
+     * @param minZ
+     * @param maxX Inclusive
+     * @param maxY Inclusive
+     * @param maxZ Inclusive
+     * @param type
+     */
+    public void fill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, Material type) {
+        minY = Math.max(minY, minHeight);
+        maxY = Math.min(maxY, maxHeight - 1);
+
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                for (int section = sectionIndex(minY); section <= sectionIndex(maxY); section++) {
+                    int fromX = Math.max(minX, chunkX * BLOCKS_PER_CHUNK), toX = Math.min(maxX, chunkX * BLOCKS_PER_CHUNK + 15);
+                    int fromZ = Math.max(minZ, chunkZ * BLOCKS_PER_CHUNK), toZ = Math.min(maxZ, chunkZ * BLOCKS_PER_CHUNK + 15);
+                    int sectionY = minHeight + section * BLOCKS_PER_CHUNK;
+                    int fromY = Math.max(minY, sectionY), toY = Math.min(maxY, sectionY + 15);
+
+                    // Whole section, store the block type alone
+                    if ((toX - fromX + 1) * (toY - fromY + 1) * (toZ - fromZ + 1) == BLOCKS_PER_SECTION) {
+                        long key = sectionKey(chunkX, section, chunkZ);
+                        if (type == Material.AIR) {
+                            sections.remove(key);
+                        }
+                        else {
+                            sections.put(key, new Section(type));
+                        }
+                        continue;
+                    }
+
+                    for (int y = fromY; y <= toY; y++) {
+                        for (int z = fromZ; z <= toZ; z++) {
+                            for (int x = fromX; x <= toX; x++) {
+                                setBlockType(x, y, z, type);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isSectionEmpty(int chunkX, int chunkZ, int section) {
+        Section stored = sections.get(sectionKey(chunkX, section, chunkZ));
+        return stored == null || stored.blocks == null && stored.uniformType == Material.AIR;
+    }
+
+    @Override
+    public Material getUniformSectionType(int chunkX, int chunkZ, int section) {
+        Section stored = sections.get(sectionKey(chunkX, section, chunkZ));
+        if (stored == null) {
+            return Material.AIR;
+        }
+        return stored.uniformType;
+    }
+
+    private int sectionIndex(int y) {
+        return (y - minHeight) >> 4;
+    }
+
+    private static long sectionKey(int chunkX, int section, int chunkZ) {
+        return SkyblockUtil.blockKey(chunkX, section, chunkZ);
+    }
+
+    private static int blockIndex(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    /**
+     * A 16x16x16 section, either a single block type or an array of material ordinals
+     */
+    private static class Section {
+        private Material uniformType; // Null once the section holds more than one block type
+        private short[] blocks;
+
+        Section(Material uniformType) {
+            this.uniformType = uniformType;
+        }
+
+        void expand() {
+            blocks = new short[BLOCKS_PER_SECTION];
+            Arrays.fill(blocks, (short) uniformType.ordinal());
+            uniformType = null;
+        }
+    }
+}
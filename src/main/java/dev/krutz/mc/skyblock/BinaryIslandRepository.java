@@ -0,0 +1,461 @@
+package dev.krutz.mc.skyblock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Stores islands and their scores in a versioned binary base file and a log of the changes made since.
+ * The base file starts with a magic number and a format version, followed by the table of world names,
+ * one length-prefixed record per island and the score of every scored island.
+ * <p>
+ * A save only appends the changed islands and scores to the log, framed like the journal with a length
+ * and a CRC32, and flushes it with one fsync. Once the log has grown as large as the base file, the base
+ * file is rewritten from the records kept in memory and the log is deleted. On load the log is replayed
+ * over the base file, the last entry of an island wins, and an entry that was only partly written is cut off.
+ */
+public class BinaryIslandRepository implements IslandRepository {
+    // Constants that are not configurable
+    private static final String ISLANDS_FILE = "islands.dat";
+    private static final String LOG_FILE = "islands.log";
+    private static final int MAGIC = 0x534B4953; // "SKIS"
+    private static final int FORMAT_VERSION = 2; // Increment when the record layout changes, and keep reading older versions
+    private static final int SCORES_VERSION = 2; // First format version with a scores section
+    private static final long MIN_COMPACT_LOG_BYTES = 1 << 20; // A log smaller than this is never compacted
+    private static final byte ISLAND_SAVED = 1; // Entry holds the full record of an island, with world names written in full
+    private static final byte ISLAND_DELETED = 2; // Entry holds the index of a removed island
+    private static final byte SCORE_SAVED = 3; // Entry holds the score record of an island
+    private static final byte SCORE_DELETED = 4; // Entry holds the index of an island whose score was removed
+
+    // Instance variables
+    private final File dataFolder;
+    private final Logger logger;
+    private final JsonIslandRepository scoreRepository; // Scores saved before they were stored in the binary file
+    private IslandRecordCodec.WorldNames worldNames = new IslandRecordCodec.WorldNames(); // World names the cached records refer to
+    private final Map<Integer, byte[]> encodedIslands = new TreeMap<>(); // Encoded record of every stored island, by index
+    private final Map<Integer, IslandScoreRecord> savedScores = new TreeMap<>(); // Last saved score of every island, by index
+    private boolean hasScores = false; // Scores are stored in the binary files, not in the JSON score files
+    private boolean isLoaded = false;
+    private boolean isLoadFailed = false; // Files that could not be read are never overwritten
+    private long baseBytes = 0; // Size of the base file
+    private long logBytes = 0; // Size of the log, up to the last complete entry
+    private FileChannel logChannel;
+
+    /**
+     * Create a repository that stores its files in a folder
+     * @param dataFolder
+     * @param logger
+     */
+    public BinaryIslandRepository(File dataFolder, Logger logger) {
+        this.dataFolder = dataFolder;
+        this.logger = logger;
+        this.scoreRepository = new JsonIslandRepository(dataFolder, logger);
+    }
+
+    @Override
+    public List<Island> loadIslands() throws IOException {
+        readFiles();
+        List<Island> loadedIslands = new ArrayList<>(encodedIslands.size());
+        for (byte[] encoded : encodedIslands.values()) {
+            loadedIslands.add(decode(encoded).toIsland());
+        }
+        return loadedIslands;
+    }
+
+    @Override
+    public List<IslandScoreRecord> loadScores() throws IOException {
+        ensureLoaded();
+        if (!hasScores) {
+            // Scores saved as JSON by an older version, the first save moves them into the base file
+            return scoreRepository.loadScores();
+        }
+        return new ArrayList<>(savedScores.values());
+    }
+
+    @Override
+    public void saveIslands(List<IslandRecord> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        ensureLoaded();
+
+        Log log = new Log();
+        Map<Integer, byte[]> encoded = new TreeMap<>();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (IslandRecord record : records) {
+            log.out.writeByte(ISLAND_SAVED);
+            IslandRecordCodec.write(log.out, record);
+            log.endEntry();
+
+            bytes.reset();
+            IslandRecordCodec.write(out, record, worldNames);
+            encoded.put(record.getIndex(), bytes.toByteArray());
+        }
+
+        append(log);
+        encodedIslands.putAll(encoded);
+        compactIfNeeded();
+    }
+
+    @Override
+    public void deleteIslands(List<Integer> indexes) throws IOException {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        ensureLoaded();
+
+        Log log = new Log();
+        for (Integer index : indexes) {
+            if (encodedIslands.containsKey(index)) {
+                log.out.writeByte(ISLAND_DELETED);
+                log.out.writeInt(index);
+                log.endEntry();
+            }
+        }
+        if (log.isEmpty()) {
+            return;
+        }
+
+        append(log);
+        encodedIslands.keySet().removeAll(indexes);
+        compactIfNeeded();
+    }
+
+    @Override
+    public void saveScores(List<IslandScoreRecord> records) throws IOException {
+        ensureLoaded();
+
+        Log log = new Log();
+        Map<Integer, IslandScoreRecord> changed = new TreeMap<>();
+        Set<Integer> listed = new HashSet<>();
+        for (IslandScoreRecord record : records) {
+            listed.add(record.getIndex());
+            if (!record.hasSameScore(savedScores.get(record.getIndex()))) {
+                log.out.writeByte(SCORE_SAVED);
+                IslandRecordCodec.writeScore(log.out, record);
+                log.endEntry();
+                changed.put(record.getIndex(), record);
+            }
+        }
+        List<Integer> removed = new ArrayList<>();
+        for (Integer index : savedScores.keySet()) {
+            if (!listed.contains(index)) {
+                log.out.writeByte(SCORE_DELETED);
+                log.out.writeInt(index);
+                log.endEntry();
+                removed.add(index);
+            }
+        }
+
+        if (!hasScores) {
+            // Write a base file with a scores section, so the JSON scores are not read again
+            savedScores.putAll(changed);
+            savedScores.keySet().removeAll(removed);
+            hasScores = true;
+            compact();
+            return;
+        }
+        if (log.isEmpty()) {
+            return;
+        }
+
+        append(log);
+        savedScores.putAll(changed);
+        savedScores.keySet().removeAll(removed);
+        compactIfNeeded();
+    }
+
+    @Override
+    public boolean isEmpty() throws IOException {
+        ensureLoaded();
+        return encodedIslands.isEmpty();
+    }
+
+    @Override
+    public void close() {
+        closeLog();
+    }
+
+    ////////////////////////////////////////////
+    /// Helper methods
+    ////////////////////////////////////////////
+
+    private void ensureLoaded() throws IOException {
+        if (isLoadFailed) {
+            throw new IOException(ISLANDS_FILE + " could not be read, it is not overwritten");
+        }
+        if (!isLoaded) {
+            readFiles();
+        }
+    }
+
+    /**
+     * Read the base file and replay the log over it, keeping the encoded record of every island
+     * @throws IOException if the base file could not be read, or was written by a newer version
+     */
+    private void readFiles() throws IOException {
+        closeLog();
+        worldNames = new IslandRecordCodec.WorldNames();
+        encodedIslands.clear();
+        savedScores.clear();
+        hasScores = false;
+        isLoaded = false;
+        baseBytes = 0;
+        logBytes = 0;
+
+        try {
+            readBase();
+            readLog();
+        } catch (IOException | RuntimeException e) {
+            isLoadFailed = true;
+            logger.severe("Failed to load " + ISLANDS_FILE + ": " + e.getMessage());
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
+        }
+        isLoaded = true;
+    }
+
+    private void readBase() throws IOException {
+        File file = getIslandsFile();
+        if (!file.exists()) {
+            return;
+        }
+
+        byte[] data = Files.readAllBytes(file.toPath());
+        baseBytes = data.length;
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) {
+            throw new IOException(ISLANDS_FILE + " is not an islands file");
+        }
+        int version = in.readInt();
+        if (version > FORMAT_VERSION) {
+            throw new IOException(ISLANDS_FILE + " was written by a newer version (format " + version + ")");
+        }
+
+        int worldCount = in.readInt();
+        for (int i = 0; i < worldCount; i++) {
+            worldNames.intern(IslandRecordCodec.readString(in));
+        }
+
+        int islandCount = in.readInt();
+        for (int i = 0; i < islandCount; i++) {
+            byte[] encoded = new byte[in.readInt()];
+            in.readFully(encoded);
+            encodedIslands.put(decode(encoded).getIndex(), encoded);
+        }
+
+        if (version >= SCORES_VERSION) {
+            hasScores = true;
+            int scoreCount = in.readInt();
+            for (int i = 0; i < scoreCount; i++) {
+                IslandScoreRecord record = IslandRecordCodec.readScore(in);
+                savedScores.put(record.getIndex(), record);
+            }
+        }
+    }
+
+    /**
+     * Replay the log over the records read from the base file. Reading stops at the first entry that
+     * is incomplete or corrupt, and the log is cut off there so new entries follow the last good one.
+     * @throws IOException
+     */
+    private void readLog() throws IOException {
+        File file = getLogFile();
+        if (!file.exists()) {
+            return;
+        }
+
+        byte[] data = Files.readAllBytes(file.toPath());
+        ByteArrayInputStream source = new ByteArrayInputStream(data);
+        DataInputStream in = new DataInputStream(source);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        int entries = 0;
+        while (source.available() > 0) {
+            try {
+                DataInputStream entry = new DataInputStream(new ByteArrayInputStream(IslandRecordCodec.readFrame(in)));
+                byte type = entry.readByte();
+                if (type == ISLAND_SAVED) {
+                    IslandRecord record = IslandRecordCodec.read(entry);
+                    bytes.reset();
+                    IslandRecordCodec.write(out, record, worldNames);
+                    encodedIslands.put(record.getIndex(), bytes.toByteArray());
+                } else if (type == ISLAND_DELETED) {
+                    encodedIslands.remove(entry.readInt());
+                } else if (type == SCORE_SAVED) {
+                    IslandScoreRecord record = IslandRecordCodec.readScore(entry);
+                    savedScores.put(record.getIndex(), record);
+                    hasScores = true;
+                } else if (type == SCORE_DELETED) {
+                    savedScores.remove(entry.readInt());
+                    hasScores = true;
+                } else {
+                    throw new IOException("Unknown entry type " + type);
+                }
+            } catch (EOFException e) {
+                logger.warning("Cutting off an incomplete entry at the end of " + LOG_FILE + " after " + entries + " entries");
+                break;
+            } catch (IOException e) {
+                logger.warning("Cutting off the rest of " + LOG_FILE + " after " + entries + " entries: " + e.getMessage());
+                break;
+            }
+            entries++;
+            logBytes = data.length - source.available();
+        }
+
+        if (logBytes < data.length) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(logBytes);
+                channel.force(false);
+            }
+        }
+    }
+
+    /**
+     * Append entries to the log and flush them to disk. If the write fails, the log is cut back to
+     * its last complete entry so entries appended later can still be read.
+     * @param log
+     * @throws IOException
+     */
+    private void append(Log log) throws IOException {
+        if (log.isEmpty()) {
+            return;
+        }
+        if (logChannel == null) {
+            dataFolder.mkdirs();
+            logChannel = FileChannel.open(getLogFile().toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            logChannel.position(logBytes);
+            SkyblockUtil.syncDirectory(dataFolder.toPath());
+        }
+
+        byte[] data = log.bytes.toByteArray();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                logChannel.write(buffer);
+            }
+            logChannel.force(false);
+        } catch (IOException e) {
+            try {
+                logChannel.truncate(logBytes);
+                logChannel.position(logBytes);
+            } catch (IOException truncateException) {
+                closeLog(); // The torn entry is cut off when the log is read again
+            }
+            throw e;
+        }
+        logBytes += data.length;
+    }
+
+    private void compactIfNeeded() throws IOException {
+        if (logBytes >= Math.max(MIN_COMPACT_LOG_BYTES, baseBytes)) {
+            compact();
+        }
+    }
+
+    /**
+     * Write the header, the world names, the cached record of every island and every score, safely
+     * replacing the old base file, then delete the log. If the server stops before the log is deleted,
+     * replaying it over the new base file changes nothing.
+     * @throws IOException
+     */
+    private void compact() throws IOException {
+        int size = 0;
+        for (byte[] encoded : encodedIslands.values()) {
+            size += Integer.BYTES + encoded.length;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(size + 1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(worldNames.getNames().size());
+        for (String worldName : worldNames.getNames()) {
+            IslandRecordCodec.writeString(out, worldName);
+        }
+        out.writeInt(encodedIslands.size());
+        for (byte[] encoded : encodedIslands.values()) {
+            out.writeInt(encoded.length);
+            out.write(encoded);
+        }
+        out.writeInt(savedScores.size());
+        for (IslandScoreRecord record : savedScores.values()) {
+            IslandRecordCodec.writeScore(out, record);
+        }
+
+        byte[] data = bytes.toByteArray();
+        SkyblockUtil.writeFileAtomically(getIslandsFile(), data);
+        baseBytes = data.length;
+
+        closeLog();
+        File logFile = getLogFile();
+        if (logFile.exists() && !logFile.delete()) {
+            logger.warning("Could not delete " + LOG_FILE + " after writing " + ISLANDS_FILE);
+            return; // Replaying the log again is harmless, keep appending to it
+        }
+        logBytes = 0;
+    }
+
+    private void closeLog() {
+        if (logChannel == null) {
+            return;
+        }
+        try {
+            logChannel.close();
+        } catch (IOException e) {
+            logger.warning("Failed to close " + LOG_FILE + ": " + e.getMessage());
+        }
+        logChannel = null;
+    }
+
+    private IslandRecord decode(byte[] encoded) throws IOException {
+        return IslandRecordCodec.read(new DataInputStream(new ByteArrayInputStream(encoded)), worldNames);
+    }
+
+    private File getIslandsFile() {
+        return new File(dataFolder, ISLANDS_FILE);
+    }
+
+    private File getLogFile() {
+        return new File(dataFolder, LOG_FILE);
+    }
+
+    /**
+     * Entries collected for one append, each wrapped in a frame
+     */
+    private static final class Log {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(entryBytes);
+        private final DataOutputStream frames = new DataOutputStream(bytes);
+
+        /**
+         * Frame the entry written to out since the last call
+         * @throws IOException
+         */
+        private void endEntry() throws IOException {
+            IslandRecordCodec.writeFrame(frames, entryBytes.toByteArray());
+            entryBytes.reset();
+        }
+
+        private boolean isEmpty() {
+            return bytes.size() == 0;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package dev.krutz.mc.skyblock;
+
+import java.util.Arrays;
+
+/**
+ * A compact count of blocks by type. Only the block types that are present are stored,
+ * as material ordinals sorted in ascending order with a count for each.
+ * An island usually holds a few dozen block types, far fewer than the number of materials.
+ */
+public class BlockCounts {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] ordinals;
+    private int[] counts;
+    private int size = 0;
+
+    /**
+     * Create an empty block count
+     */
+    public BlockCounts() {
+        this.ordinals = new int[INITIAL_CAPACITY];
+        this.counts = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Create a block count from a histogram indexed by Material.ordinal()
+     * @param histogram
+     */
+    public BlockCounts(int[] histogram) {
+        int present = 0;
+        for (int count : histogram) {
+            if (count != 0) {
+                present++;
+            }
+        }
+
+        this.ordinals = new int[Math.max(present, INITIAL_CAPACITY)];
+        this.counts = new int[ordinals.length];
+        for (int ordinal = 0; ordinal < histogram.length; ordinal++) {
+            if (histogram[ordinal] != 0) {
+                ordinals[size] = ordinal;
+                counts[size] = histogram[ordinal];
+                size++;
+            }
+        }
+    }
+
+    /**
+     * Add to the count of a block type. Block types whose count drops to 0 are removed.
+     * @param ordinal Material.ordinal() of the block type
+     * @param amount Amount to add, may be negative
+     */
+    public void add(int ordinal, int amount) {
+        int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (position >= 0) {
+            counts[position] += amount;
+            if (counts[position] == 0) {
+                remove(position);
+            }
+            return;
+        }
+
+        if (amount == 0) {
+            return;
+        }
+
+        // Insert the new block type, keeping the ordinals sorted
+        position = -position - 1;
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        System.arraycopy(ordinals, position, ordinals, position + 1, size - position);
+        System.arraycopy(counts, position, counts, position + 1, size - position);
+        ordinals[position] = ordinal;
+        counts[position] = amount;
+        size++;
+    }
+
+    /**
+     * Get the count of a block type
+     * @param ordinal Material.ordinal() of the block type
+     * @return Number of blocks of the type
+     */
+    public int get(int ordinal) {
+        int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        return position >= 0 ? counts[position] : 0;
+    }
+
+    /**
+     * Get the number of block types present
+     * @return Number of block types
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the block type at a position, positions are sorted by ordinal
+     * @param position Between 0 and size() - 1
+     * @return Material.ordinal() of the block type
+     */
+    public int ordinalAt(int position) {
+        return ordinals[position];
+    }
+
+    /**
+     * Get the count at a position, positions are sorted by ordinal
+     * @param position Between 0 and size() - 1
+     * @return Number of blocks of the block type at the position
+     */
+    public int countAt(int position) {
+        return counts[position];
+    }
+
+    private void remove(int position) {
+        System.arraycopy(ordinals, position + 1, ordinals, position, size - position - 1);
+        System.arraycopy(counts, position + 1, counts, position, size - position - 1);
+        size--;
+    }
+}
@@ -0,0 +1,17 @@
+package dev.krutz.mc.skyblock;
+
+import org.bukkit.Material;
+
+/**
+ * Write access to blocks by world coordinates. Island clearing and building write blocks through this interface.
+ */
+public interface BlockSink {
+    /**
+     * Set the type of a block
+     * @param x
+     * @param y
+     * @param z
+     * @param type
+     */
+    void setBlockType(int x, int y, int z, Material type);
+}
@@ -0,0 +1,55 @@
+package dev.krutz.mc.skyblock;
+
+import org.bukkit.Material;
+
+/**
+ * Read access to blocks by world coordinates. Island scoring, clearing and safe location
+ * searches read blocks through this interface, so they can run against a live world,
+ * chunk snapshots or an in-memory world without a server.
+ */
+public interface BlockSource {
+    /**
+     * Get the lowest y coordinate that can hold blocks
+     * @return Minimum y coordinate, inclusive
+     */
+    int getMinHeight();
+
+    /**
+     * Get the height limit
+     * @return Maximum y coordinate, exclusive
+     */
+    int getMaxHeight();
+
+    /**
+     * Get the type of a block
+     * @param x
+     * @param y
+     * @param z
+     * @return Block type, AIR if the position holds no block
+     */
+    Material getBlockType(int x, int y, int z);
+
+    /**
+     * Check if a 16x16x16 chunk section is known to be entirely air.
+     * Sources that cannot tell return false and the section is read block by block.
+     * @param chunkX
+     * @param chunkZ
+     * @param section Section index counted from getMinHeight()
+     * @return True if the section holds no blocks
+     */
+    default boolean isSectionEmpty(int chunkX, int chunkZ, int section) {
+        return false;
+    }
+
+    /**
+     * Get the block type of a chunk section that is known to hold a single block type.
+     * Sources that cannot tell return null and the section is read block by block.
+     * @param chunkX
+     * @param chunkZ
+     * @param section Section index counted from getMinHeight()
+     * @return Block type of every block in the section, or null if unknown
+     */
+    default Material getUniformSectionType(int chunkX, int chunkZ, int section) {
+        return null;
+    }
+}
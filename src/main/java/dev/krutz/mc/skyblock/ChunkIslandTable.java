@@ -0,0 +1,128 @@
+package dev.krutz.mc.skyblock;
+
+import java.util.Arrays;
+
+/**
+ * A hash table from chunk key to island index, using open addressing over primitive arrays
+ * so lookups do not box keys or values. Not thread safe, use from the main thread.
+ */
+public class ChunkIslandTable {
+    private static final long EMPTY = Long.MIN_VALUE; // Not a valid chunk key for any loaded world
+    static final int INITIAL_CAPACITY = 1024; // Must be a power of two, package-private for tests
+    public static final int NO_ISLAND = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int size = 0;
+
+    /**
+     * Create an empty table
+     */
+    public ChunkIslandTable() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Get the island index of a chunk
+     * @param chunkKey see SkyblockUtil.chunkKey
+     * @return Island index, or NO_ISLAND if the chunk does not belong to an island
+     */
+    public int get(long chunkKey) {
+        int mask = keys.length - 1;
+        for (int slot = hash(chunkKey) & mask; ; slot = (slot + 1) & mask) {
+            long key = keys[slot];
+            if (key == chunkKey) {
+                return values[slot];
+            }
+            if (key == EMPTY) {
+                return NO_ISLAND;
+            }
+        }
+    }
+
+    /**
+     * Map a chunk to an island, replacing any island it was mapped to
+     * @param chunkKey see SkyblockUtil.chunkKey
+     * @param islandIndex
+     */
+    public void put(long chunkKey, int islandIndex) {
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+
+        int mask = keys.length - 1;
+        int slot = hash(chunkKey) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != chunkKey) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = chunkKey;
+            size++;
+        }
+        values[slot] = islandIndex;
+    }
+
+    /**
+     * Remove a chunk if it is mapped to the given island
+     * @param chunkKey see SkyblockUtil.chunkKey
+     * @param islandIndex
+     */
+    public void remove(long chunkKey, int islandIndex) {
+        int mask = keys.length - 1;
+        int slot = hash(chunkKey) & mask;
+        while (keys[slot] != chunkKey) {
+            if (keys[slot] == EMPTY) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (values[slot] != islandIndex) {
+            return;
+        }
+
+        // Shift later entries of the probe run back so lookups do not stop at the gap
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            boolean movable = gap <= next ? (home <= gap || home > next) : (home <= gap && home > next);
+            if (movable) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+    }
+
+    /**
+     * Get the number of chunks in the table
+     * @return Number of chunks
+     */
+    public int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    static int hash(long key) {
+        // Mix the chunk x and z halves so neighboring chunks spread across the table
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -14,13 +14,35 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 public class CommandManager {
+    private static final int MAX_PLAYER_SUGGESTIONS = 50;
+
     private final Map<String, CommandInfo> commands = new HashMap<>();
+    private final Map<String, Function<String, List<String>>> argumentCompleters = new HashMap<>();
+    private PlayerProfileCache profileCache;
 
     public CommandManager() {
     }
 
+    /**
+     * Set the profile cache that player name arguments are completed from
+     * @param profileCache
+     */
+    public void setProfileCache(PlayerProfileCache profileCache) {
+        this.profileCache = profileCache;
+    }
+
+    /**
+     * Register a completer for an argument template, such as "Islands"
+     * @param template Argument template name, case-insensitive
+     * @param completer Returns the suggestions for what has been typed so far
+     */
+    public void registerArgumentCompleter(String template, Function<String, List<String>> completer) {
+        argumentCompleters.put(template.toLowerCase(), completer);
+    }
+
     public void registerCommand(CommandInfo command) {
         commands.put(command.getBaseCommand(), command);
         for (String alias : command.getAliases()) {
@@ -47,7 +69,7 @@ public class CommandManager {
         }
 
         // Check if the sender has the required permission
-        if (command.getPermission() != null && (!sender.hasPermission(command.getPermission()) || command.getPermission().equals("op") && !sender.isOp())) {
+        if (!hasPermission(sender, command)) {
             sender.sendMessage(Component.text("You don't have permission to execute this command.").color(NamedTextColor.RED));
             return false;
         }
@@ -60,6 +82,11 @@ public class CommandManager {
                 return false;
             }
 
+            if (!hasPermission(sender, subcommand)) {
+                sender.sendMessage(Component.text("You don't have permission to execute this command.").color(NamedTextColor.RED));
+                return false;
+            }
+
             String[] subArgs = java.util.Arrays.copyOfRange(args, 1, args.length);
             
             // Execute the subcommand action
@@ -82,6 +109,20 @@ public class CommandManager {
         return false;
     }
 
+    /**
+     * Check if a sender has the permission required by a command
+     * @param sender
+     * @param command
+     * @return True if the command has no permission or the sender has it
+     */
+    private boolean hasPermission(CommandSender sender, CommandInfo command) {
+        String permission = command.getPermission();
+        if (permission == null) {
+            return true;
+        }
+        return sender.hasPermission(permission) && (!permission.equals("op") || sender.isOp());
+    }
+
     /**
      * Generate the auto-complete for a command
      * @param sender
@@ -128,8 +169,16 @@ public class CommandManager {
                     // If there are templated args, continue processing
                     if(templated_args.size() >= 1){
                         String currentArgumentTemplate = templated_args.get(typed_args.size() - 1);
+                        // If arg has a registered completer, use it
+                        Function<String, List<String>> completer = argumentCompleters.get(currentArgumentTemplate.toLowerCase());
+                        if(completer != null){
+                            return completer.apply(typed_args.get(typed_args.size() - 1));
+                        }
                         // If arg is all players, sub in all offline/online players
                         if(currentArgumentTemplate.equalsIgnoreCase("All Players")){
+                            if(profileCache != null){
+                                return profileCache.suggestNames(typed_args.get(typed_args.size() - 1), MAX_PLAYER_SUGGESTIONS);
+                            }
                             ArrayList<String> allPlayers = new ArrayList<>();
                             for(OfflinePlayer p : Bukkit.getOfflinePlayers()){
                                 allPlayers.add(p.getName());
@@ -177,7 +226,7 @@ public class CommandManager {
     private List<String> filterSuggestions(String current, List<String> options) {
         List<String> filtered = new ArrayList<>();
         for (String option : options) {
-            if (option.toLowerCase().startsWith(current.toLowerCase())) {
+            if (option.regionMatches(true, 0, current, 0, current.length())) {
                 filtered.add(option);
             }
         }
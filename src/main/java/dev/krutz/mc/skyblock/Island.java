@@ -1,13 +1,18 @@
 package dev.krutz.mc.skyblock;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.TreeType;
@@ -21,6 +26,8 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 
+import net.kyori.adventure.text.Component;
+
 import com.google.gson.annotations.SerializedName;
 
 import com.google.gson.annotations.Expose;
@@ -32,15 +39,18 @@ public class Island {
     // Configurable constants, can be changed in the config file
     public static final float CHUNK_ISLAND_RADIUS = 3.5f;
     public static final int CHUNK_BUFFER = 1; // Buffer space between islands
-    private static final int MAX_ISLANDS_PER_ROW = 10;
+    public static final int MAX_ISLANDS_PER_ROW = 10;
     private static final int Y_HEIGHT = 100; // Offset for island schematic
     private static final double SPAWN_OFFSET_X = 2.5;
     private static final double SPAWN_OFFSET_Y = 5;
     private static final double SPAWN_OFFSET_Z = 0.5;
     private static final float SPAWN_OFFSET_YAW = 90;
     private static final float SPAWN_OFFSET_PITCH = 0;
-    private static Map<Material, Double> BLOCK_WEIGHTS = new HashMap<>();
     private static final double DEFAULT_BLOCK_WEIGHT = 0.01;
+    private static final int NUM_BLOCKS_IN_SCORE_BREAKDOWN = 10; // Number of blocks listed by /island info
+    private static final Material[] MATERIALS = Material.values();
+    private static volatile double[] BLOCK_WEIGHTS = compileBlockWeights(new HashMap<>()); // Indexed by Material.ordinal()
+    private static final String[] BLOCK_DISPLAY_NAMES = new String[MATERIALS.length]; // Filled on first use
 
     // Constants that are not configurable
     private final int BLOCKS_PER_CHUNK = 16;
@@ -49,6 +59,12 @@ public class Island {
 
     // Static variable to keep track of the last island index
     private static int lastIslandIndex = 0;
+
+    // Index of island members, kept up to date as owners and friends change
+    private static IslandMembershipIndex membershipIndex;
+
+    // Journal of changes made since the last save
+    private static IslandJournal journal;
     
     // Island data that is serialized and deserialized
     @Expose @SerializedName("x") private final int x;
@@ -66,16 +82,77 @@ public class Island {
 
     // Volatile island data that is not serialized
     private boolean isModified = false;
+    private transient long modificationCount = 0; // Incremented on every change to saved data
     private double score = 0;
-    private Map<String, Double> scoreBreakdown = new HashMap<>();
+    private transient BlockCounts blockCounts; // Created lazily since Gson does not run field initializers
+    private transient long scoreVersion = 0; // Incremented every time the score changes
+    private transient Component scoreBreakdownMessage; // Built on request for scoreBreakdownVersion
+    private transient long scoreBreakdownVersion = 0;
+    private transient IslandScoreRecord scoreRecord; // Built on request for scoreRecordVersion
+    private transient long scoreRecordVersion = 0;
+    private transient long blockChangeVersion = 0; // Incremented on every tracked block change
+    private transient boolean hasScoreBaseline = false; // True once a full scan has set the block counts
+    private transient long scoredAt = 0; // Time in milliseconds of the last full scan
+    private transient long accessVersion = 0; // Incremented every time the ban list, lock or party changes
+    private transient Set<UUID> friendSet; // Lookup set for friends, created lazily from the friends list
+    private transient Set<UUID> banSet; // Lookup set for banList, created lazily from the ban list
+
+    /**
+     * Set the block weights. The weights are compiled into a table indexed by Material.ordinal(),
+     * blocks without a configured weight use DEFAULT_BLOCK_WEIGHT.
+     * @param blockWeights
+     */
+    public static void setBlockWeights(Map<Material, Double> blockWeights) {
+        BLOCK_WEIGHTS = compileBlockWeights(blockWeights);
+    }
+
+    /**
+     * Get the weight a block adds to the island score. Air is not scored and has a weight of 0.
+     * @param blockType
+     * @return Score weight of the block
+     */
+    public static double getBlockWeight(Material blockType) {
+        return BLOCK_WEIGHTS[blockType.ordinal()];
+    }
+
+    /**
+     * Get the block weight table, indexed by Material.ordinal(). The table must not be modified.
+     * @return Block weight table
+     */
+    public static double[] getBlockWeights() {
+        return BLOCK_WEIGHTS;
+    }
 
-    public static synchronized void setBlockWeights(Map<Material, Double> blockWeights) {
-        BLOCK_WEIGHTS = blockWeights;
+    /**
+     * Get a material from its ordinal
+     * @param ordinal
+     * @return Material with the ordinal
+     */
+    public static Material getMaterial(int ordinal) {
+        return MATERIALS[ordinal];
     }
 
-    public static synchronized Double getBlockWeight(Material blockType) {
-        Double weight = BLOCK_WEIGHTS.get(blockType);
-        return weight != null ? weight : DEFAULT_BLOCK_WEIGHT;
+    /**
+     * Get the number of materials, this is the length of the weight table and block count histograms
+     * @return Number of materials
+     */
+    public static int getMaterialCount() {
+        return MATERIALS.length;
+    }
+
+    /**
+     * Build the weight table from a map of configured weights.
+     * @param blockWeights
+     * @return Weight table indexed by Material.ordinal()
+     */
+    private static double[] compileBlockWeights(Map<Material, Double> blockWeights) {
+        double[] weights = new double[Material.values().length];
+        Arrays.fill(weights, DEFAULT_BLOCK_WEIGHT);
+        for (Map.Entry<Material, Double> entry : blockWeights.entrySet()) {
+            weights[entry.getKey().ordinal()] = entry.getValue();
+        }
+        weights[Material.AIR.ordinal()] = 0;
+        return weights;
     }
 
     /** 
@@ -97,6 +174,31 @@ public class Island {
         this.isLocked = isLocked;
     }
 
+    /**
+    * Islands instantiated with this constructor are loaded from a record, such as one read from a binary file.
+    * The island gets its own copies of the lists of the record.
+    * @param record
+    */
+    public Island(IslandRecord record) {
+        this.x = record.getX();
+        this.z = record.getZ();
+        this.name = record.getName();
+        this.index = record.getIndex();
+        this.ownerUUID = record.getOwnerUUID();
+        this.friends = new ArrayList<>();
+        if (record.getFriends() != null) {
+            for (IslandFriend friend : record.getFriends()) {
+                this.friends.add(new IslandFriend(friend));
+            }
+        }
+        this.banList = record.getBanList() == null ? new ArrayList<>() : new ArrayList<>(record.getBanList());
+        this.enterMessage = record.getEnterMessage();
+        this.exitMessage = record.getExitMessage();
+        this.islandSpawn = record.getIslandSpawn();
+        this.islandWarp = record.getIslandWarp();
+        this.isLocked = record.isLocked();
+    }
+
     /** 
     * Islands instantiated with this constructor are assumed to be new requests from players
     * The modified flag is set to true because the island is modified after creation.
@@ -104,15 +206,29 @@ public class Island {
     */
     public Island(Player player){
         index = lastIslandIndex++;
-        float chunksX = ((((index % MAX_ISLANDS_PER_ROW) + 1) * CHUNK_BUFFER) + ((index % MAX_ISLANDS_PER_ROW) * 2 + 1) * CHUNK_ISLAND_RADIUS);
-        float chunksZ = (((index / MAX_ISLANDS_PER_ROW) + 1) * CHUNK_BUFFER) + ((index / MAX_ISLANDS_PER_ROW) * 2 + 1) * CHUNK_ISLAND_RADIUS;
-        x = ChunkToBlock(chunksX) + BLOCKS_PER_CHUNK / 2;
-        z = ChunkToBlock(chunksZ) + BLOCKS_PER_CHUNK / 2;
+        x = IslandGrid.getCenterX(index);
+        z = IslandGrid.getCenterZ(index);
         ownerUUID = player.getUniqueId();
         clearIslandBlocks();
         resetIslandData();
     }
 
+    /**
+     * Set the index of island members that islands keep up to date as owners and friends change.
+     * @param index
+     */
+    public static void setMembershipIndex(IslandMembershipIndex index){
+        membershipIndex = index;
+    }
+
+    /**
+     * Set the journal that islands record their changes in.
+     * @param islandJournal
+     */
+    public static void setJournal(IslandJournal islandJournal){
+        journal = islandJournal;
+    }
+
     /**
      * Set lastIslandIndex from the last island index from file.
      * @param newIndex
@@ -147,52 +263,104 @@ public class Island {
      * Calculate the score of the island based on the blocks placed.
      * The score is calculated by counting the number of blocks placed on the island.
      * The weight of each block is 0.01. This is configurable in the config file.
-     * This function populates the score and scoreBreakdown fields. Where the scoreBreakdown
-     * is a map of block types to the number of blocks of that type on the island and score is the total score.
+     * This function populates the score and blockCounts fields. Where the blockCounts
+     * is the number of blocks of each type on the island and score is the total score.
+     * This must be called on the main thread, the chunks are captured as snapshots and scanned in parallel.
+     * Live block changes are applied with applyBlockChange, so a full scan is only needed to reconcile the score.
+     * Background scoring goes through IslandScoreEngine instead.
      */
     public void calculateScore() {
-        double newScore = 0;
-        Map<String, Double> newScoreBreakdown = new HashMap<>();
+        World SKYBLOCK_WORLD = WorldCache.getSkyblockWorld();
+        long[] chunkKeys = getScoreChunkKeys();
+
+        // Capture the chunks on the main thread
+        ChunkSnapshot[] snapshots = new ChunkSnapshot[chunkKeys.length];
+        for (int i = 0; i < chunkKeys.length; i++) {
+            Chunk chunk = SKYBLOCK_WORLD.getChunkAt(SkyblockUtil.chunkKeyX(chunkKeys[i]), SkyblockUtil.chunkKeyZ(chunkKeys[i]));
+            snapshots[i] = IslandScoreEngine.captureSnapshot(chunk);
+        }
 
-        // Get the center of the island
-        Location center = getIslandCenter();
+        calculateScore(IslandScoreEngine.snapshotSource(chunkKeys, snapshots));
+    }
 
-        // Calculate the chunk-aligned starting X and Z
-        int startX = (center.getBlockX() - BLOCKS_PER_CHUNK / 2) - ChunkToBlock((int) CHUNK_ISLAND_RADIUS);
-        int startZ = (center.getBlockZ() - BLOCKS_PER_CHUNK / 2) - ChunkToBlock((int) CHUNK_ISLAND_RADIUS);
+    /**
+     * Calculate the score of the island from the blocks of a block source
+     * @param source
+     */
+    public void calculateScore(BlockSource source) {
+        IslandScoreEngine.ScanResult result = IslandScoreEngine.scan(source, getScoreChunkKeys());
+        setScore(result.getScore(), result.getBlockCounts());
+    }
 
-        World SKYBLOCK_WORLD = center.getWorld();
+    /**
+     * Apply a single block change to the running score and block counts.
+     * Must be called on the main thread.
+     * @param oldType Block type before the change
+     * @param newType Block type after the change
+     */
+    public void applyBlockChange(Material oldType, Material newType) {
+        if (oldType == newType) {
+            return;
+        }
 
-        // Calculate score
-        for (int x = startX; x < startX + ((int) (CHUNK_ISLAND_RADIUS * BLOCKS_PER_CHUNK)) * 2; x++) {
-            for (int z = startZ; z < startZ + ((int) (CHUNK_ISLAND_RADIUS * BLOCKS_PER_CHUNK)) * 2; z++) {
-                for (int y = MINIMUM_Y; y < MAXIMUM_Y; y++) {
-                    Material blockType = SKYBLOCK_WORLD.getBlockAt(x, y, z).getType();
-                    
-                    if( blockType == Material.AIR){ continue; }
-                    
-                    double weight = DEFAULT_BLOCK_WEIGHT;
-                    if(BLOCK_WEIGHTS.containsKey(blockType))
-                    {
-                        weight = BLOCK_WEIGHTS.get(blockType);
-                    }
+        BlockCounts counts = getBlockCounts();
+        if (oldType != Material.AIR) {
+            counts.add(oldType.ordinal(), -1);
+        }
+        if (newType != Material.AIR) {
+            counts.add(newType.ordinal(), 1);
+        }
 
-                    newScore += weight;
-                    if(newScoreBreakdown.containsKey(blockType.toString()))
-                    {
-                        newScoreBreakdown.put(blockType.toString(), newScoreBreakdown.get(blockType.toString()) + weight);
-                    }
-                    else
-                    {
-                        newScoreBreakdown.put(blockType.toString(), weight);
-                    }
+        score += getBlockWeight(newType) - getBlockWeight(oldType);
+        blockChangeVersion++;
+        scoreVersion++;
+    }
 
-                }
+    /**
+     * Check if a position is within the island radius, ignoring height
+     * @param blockX
+     * @param blockZ
+     * @return True if the position is on the island
+     */
+    public boolean isWithinRadius(double blockX, double blockZ) {
+        double dx = blockX - x;
+        double dz = blockZ - z;
+        double radius = getRadius();
+        return dx * dx + dz * dz < radius * radius;
+    }
+
+    /**
+     * Check if a block is inside the area counted by the island score
+     * @param blockX
+     * @param blockY
+     * @param blockZ
+     * @return True if the block is scored by this island
+     */
+    public boolean isInScoreArea(int blockX, int blockY, int blockZ) {
+        int chunkRadius = (int) CHUNK_ISLAND_RADIUS;
+        return blockY >= MINIMUM_Y && blockY < MAXIMUM_Y
+            && Math.abs((blockX >> 4) - (x >> 4)) <= chunkRadius
+            && Math.abs((blockZ >> 4) - (z >> 4)) <= chunkRadius;
+    }
+
+    /**
+     * Get the chunks covered by the island score, packed with SkyblockUtil.chunkKey.
+     * This is the chunk-aligned square around the island center and does not load any chunks.
+     * @return Chunk keys of the scored area
+     */
+    public long[] getScoreChunkKeys() {
+        int chunkRadius = (int) CHUNK_ISLAND_RADIUS;
+        int centerChunkX = x >> 4;
+        int centerChunkZ = z >> 4;
+
+        long[] chunkKeys = new long[(chunkRadius * 2 + 1) * (chunkRadius * 2 + 1)];
+        int i = 0;
+        for (int chunkX = centerChunkX - chunkRadius; chunkX <= centerChunkX + chunkRadius; chunkX++) {
+            for (int chunkZ = centerChunkZ - chunkRadius; chunkZ <= centerChunkZ + chunkRadius; chunkZ++) {
+                chunkKeys[i++] = SkyblockUtil.chunkKey(chunkX, chunkZ);
             }
         }
-
-        score = newScore;
-        scoreBreakdown = newScoreBreakdown;
+        return chunkKeys;
     }
 
     /**
@@ -202,21 +370,15 @@ public class Island {
         // Get the center of the island
         Location center = getIslandCenter();
 
-        // Calculate the chunk-aligned starting X and Z
-        int startX = (center.getBlockX() - BLOCKS_PER_CHUNK / 2) - ChunkToBlock((int) CHUNK_ISLAND_RADIUS);
-        int startZ = (center.getBlockZ() - BLOCKS_PER_CHUNK / 2) - ChunkToBlock((int) CHUNK_ISLAND_RADIUS);
-
         World SKYBLOCK_WORLD = center.getWorld();
+        long[] chunkKeys = getScoreChunkKeys();
 
-        // Loop through the chunk area (7x7 chunks = ISLAND_RADIUS*2)
-        for (int x = startX; x < startX + ((int) (CHUNK_ISLAND_RADIUS * BLOCKS_PER_CHUNK)) * 2; x++) {
-            for (int z = startZ; z < startZ + ((int) (CHUNK_ISLAND_RADIUS * BLOCKS_PER_CHUNK)) * 2; z++) {
-                for (int y = MINIMUM_Y; y < MAXIMUM_Y; y++) {
-                    // Clear block at each coordinate within the island boundaries
-                    setBlock(SKYBLOCK_WORLD, x, y, z, Material.AIR);
-                }
-            }
+        // Snapshots tell which sections hold blocks, so only those are visited
+        ChunkSnapshot[] snapshots = new ChunkSnapshot[chunkKeys.length];
+        for (int i = 0; i < chunkKeys.length; i++) {
+            snapshots[i] = IslandScoreEngine.captureSnapshot(SKYBLOCK_WORLD.getChunkAt(SkyblockUtil.chunkKeyX(chunkKeys[i]), SkyblockUtil.chunkKeyZ(chunkKeys[i])));
         }
+        clearIslandBlocks(IslandScoreEngine.snapshotSource(chunkKeys, snapshots), new WorldBlockAccess(SKYBLOCK_WORLD));
 
         // Clear any entities within the island boundaries
         for (Entity entity : SKYBLOCK_WORLD.getEntities()) {
@@ -236,136 +398,182 @@ public class Island {
         }
     }
 
+    /**
+     * Clear all blocks within the island boundaries
+     * @param source Blocks to clear, only non-air blocks in sections that hold blocks are cleared
+     * @param sink Where the air blocks are written
+     */
+    public void clearIslandBlocks(BlockSource source, BlockSink sink) {
+        // Block changes made here do not fire events, the island is rescored after it is rebuilt
+        resetScore();
+
+        int sections = (source.getMaxHeight() - source.getMinHeight()) / BLOCKS_PER_CHUNK;
+
+        // Loop through the chunk area (7x7 chunks = ISLAND_RADIUS*2), only visiting sections that hold blocks
+        for (long chunkKey : getScoreChunkKeys()) {
+            int chunkX = SkyblockUtil.chunkKeyX(chunkKey);
+            int chunkZ = SkyblockUtil.chunkKeyZ(chunkKey);
+
+            for (int section = 0; section < sections; section++) {
+                if (source.isSectionEmpty(chunkX, chunkZ, section)) {
+                    continue;
+                }
+
+                int sectionY = source.getMinHeight() + section * BLOCKS_PER_CHUNK;
+                for (int y = sectionY; y < sectionY + BLOCKS_PER_CHUNK; y++) {
+                    for (int z = ChunkToBlock(chunkZ); z < ChunkToBlock(chunkZ) + BLOCKS_PER_CHUNK; z++) {
+                        for (int x = ChunkToBlock(chunkX); x < ChunkToBlock(chunkX) + BLOCKS_PER_CHUNK; x++) {
+                            // Clear block at each coordinate within the island boundaries
+                            if (source.getBlockType(x, y, z) != Material.AIR) {
+                                sink.setBlockType(x, y, z, Material.AIR);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Build the island, including the bedrock base, dirt/sand, grass, tree, and starter chest.
      */
     public void buildIsland(){
         World SKYBLOCK_WORLD = islandSpawn.getWorld();
+        WorldBlockAccess worldBlocks = new WorldBlockAccess(SKYBLOCK_WORLD);
+
+        buildIsland(worldBlocks);
 
+        // Grow the tree
+        SKYBLOCK_WORLD.generateTree(new Location(SKYBLOCK_WORLD, x, Y_HEIGHT + 5, z), TreeType.TREE);
+
+        // Chest
+        Location chestLocation = new Location(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 5, z);
+        setBlock(worldBlocks, x + 1, Y_HEIGHT + 5, z, Material.CHEST);
+        populateStarterChest(chestLocation);
+    }
+
+    /**
+     * Build the blocks of the island: the bedrock base, dirt/sand and grass.
+     * The tree and starter chest need a live world and are added by buildIsland().
+     * @param sink Where the blocks are written
+     */
+    public void buildIsland(BlockSink sink){
         // Bedrock base
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT, z, Material.BEDROCK);
+        setBlock(sink, x, Y_HEIGHT, z, Material.BEDROCK);
 
         // Grass block top layer
-        setBlock(SKYBLOCK_WORLD, x - 1, Y_HEIGHT + 4, z, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x - 1, Y_HEIGHT + 4, z + 1, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x - 1, Y_HEIGHT + 4, z - 1, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x - 1, Y_HEIGHT + 4, z + 2, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x - 1, Y_HEIGHT + 4, z - 2, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x - 1, Y_HEIGHT + 4, z + 3, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x - 1, Y_HEIGHT + 4, z - 3, Material.GRASS_BLOCK);
-
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 4, z, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 4, z + 1, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 4, z - 1, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 4, z + 2, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 4, z - 2, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 4, z + 3, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 4, z - 3, Material.GRASS_BLOCK);
-
-        setBlock(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 4, z, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 4, z + 1, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 4, z - 1, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 4, z + 2, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 4, z - 2, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 4, z + 3, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 4, z - 3, Material.GRASS_BLOCK);
-
-        setBlock(SKYBLOCK_WORLD, x + 2, Y_HEIGHT + 4, z, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x + 2, Y_HEIGHT + 4, z + 1, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x + 2, Y_HEIGHT + 4, z - 1, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x + 2, Y_HEIGHT + 4, z + 2, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x + 2, Y_HEIGHT + 4, z - 2, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x + 2, Y_HEIGHT + 4, z + 3, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x + 2, Y_HEIGHT + 4, z - 3, Material.GRASS_BLOCK);
-
-        setBlock(SKYBLOCK_WORLD, x - 2, Y_HEIGHT + 4, z, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x - 2, Y_HEIGHT + 4, z + 1, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x - 2, Y_HEIGHT + 4, z - 1, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x - 2, Y_HEIGHT + 4, z + 2, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x - 2, Y_HEIGHT + 4, z - 2, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x - 2, Y_HEIGHT + 4, z + 3, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x - 2, Y_HEIGHT + 4, z - 3, Material.GRASS_BLOCK);
-
-        setBlock(SKYBLOCK_WORLD, x + 3, Y_HEIGHT + 4, z, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x + 3, Y_HEIGHT + 4, z + 1, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x + 3, Y_HEIGHT + 4, z - 1, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x + 3, Y_HEIGHT + 4, z + 2, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x + 3, Y_HEIGHT + 4, z - 2, Material.GRASS_BLOCK);
-
-        setBlock(SKYBLOCK_WORLD, x - 3, Y_HEIGHT + 4, z, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x - 3, Y_HEIGHT + 4, z + 1, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x - 3, Y_HEIGHT + 4, z - 1, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x - 3, Y_HEIGHT + 4, z + 2, Material.GRASS_BLOCK);
-        setBlock(SKYBLOCK_WORLD, x - 3, Y_HEIGHT + 4, z - 2, Material.GRASS_BLOCK);
+        setBlock(sink, x - 1, Y_HEIGHT + 4, z, Material.GRASS_BLOCK);
+        setBlock(sink, x - 1, Y_HEIGHT + 4, z + 1, Material.GRASS_BLOCK);
+        setBlock(sink, x - 1, Y_HEIGHT + 4, z - 1, Material.GRASS_BLOCK);
+        setBlock(sink, x - 1, Y_HEIGHT + 4, z + 2, Material.GRASS_BLOCK);
+        setBlock(sink, x - 1, Y_HEIGHT + 4, z - 2, Material.GRASS_BLOCK);
+        setBlock(sink, x - 1, Y_HEIGHT + 4, z + 3, Material.GRASS_BLOCK);
+        setBlock(sink, x - 1, Y_HEIGHT + 4, z - 3, Material.GRASS_BLOCK);
+
+        setBlock(sink, x, Y_HEIGHT + 4, z, Material.GRASS_BLOCK);
+        setBlock(sink, x, Y_HEIGHT + 4, z + 1, Material.GRASS_BLOCK);
+        setBlock(sink, x, Y_HEIGHT + 4, z - 1, Material.GRASS_BLOCK);
+        setBlock(sink, x, Y_HEIGHT + 4, z + 2, Material.GRASS_BLOCK);
+        setBlock(sink, x, Y_HEIGHT + 4, z - 2, Material.GRASS_BLOCK);
+        setBlock(sink, x, Y_HEIGHT + 4, z + 3, Material.GRASS_BLOCK);
+        setBlock(sink, x, Y_HEIGHT + 4, z - 3, Material.GRASS_BLOCK);
+
+        setBlock(sink, x + 1, Y_HEIGHT + 4, z, Material.GRASS_BLOCK);
+        setBlock(sink, x + 1, Y_HEIGHT + 4, z + 1, Material.GRASS_BLOCK);
+        setBlock(sink, x + 1, Y_HEIGHT + 4, z - 1, Material.GRASS_BLOCK);
+        setBlock(sink, x + 1, Y_HEIGHT + 4, z + 2, Material.GRASS_BLOCK);
+        setBlock(sink, x + 1, Y_HEIGHT + 4, z - 2, Material.GRASS_BLOCK);
+        setBlock(sink, x + 1, Y_HEIGHT + 4, z + 3, Material.GRASS_BLOCK);
+        setBlock(sink, x + 1, Y_HEIGHT + 4, z - 3, Material.GRASS_BLOCK);
+
+        setBlock(sink, x + 2, Y_HEIGHT + 4, z, Material.GRASS_BLOCK);
+        setBlock(sink, x + 2, Y_HEIGHT + 4, z + 1, Material.GRASS_BLOCK);
+        setBlock(sink, x + 2, Y_HEIGHT + 4, z - 1, Material.GRASS_BLOCK);
+        setBlock(sink, x + 2, Y_HEIGHT + 4, z + 2, Material.GRASS_BLOCK);
+        setBlock(sink, x + 2, Y_HEIGHT + 4, z - 2, Material.GRASS_BLOCK);
+        setBlock(sink, x + 2, Y_HEIGHT + 4, z + 3, Material.GRASS_BLOCK);
+        setBlock(sink, x + 2, Y_HEIGHT + 4, z - 3, Material.GRASS_BLOCK);
+
+        setBlock(sink, x - 2, Y_HEIGHT + 4, z, Material.GRASS_BLOCK);
+        setBlock(sink, x - 2, Y_HEIGHT + 4, z + 1, Material.GRASS_BLOCK);
+        setBlock(sink, x - 2, Y_HEIGHT + 4, z - 1, Material.GRASS_BLOCK);
+        setBlock(sink, x - 2, Y_HEIGHT + 4, z + 2, Material.GRASS_BLOCK);
+        setBlock(sink, x - 2, Y_HEIGHT + 4, z - 2, Material.GRASS_BLOCK);
+        setBlock(sink, x - 2, Y_HEIGHT + 4, z + 3, Material.GRASS_BLOCK);
+        setBlock(sink, x - 2, Y_HEIGHT + 4, z - 3, Material.GRASS_BLOCK);
+
+        setBlock(sink, x + 3, Y_HEIGHT + 4, z, Material.GRASS_BLOCK);
+        setBlock(sink, x + 3, Y_HEIGHT + 4, z + 1, Material.GRASS_BLOCK);
+        setBlock(sink, x + 3, Y_HEIGHT + 4, z - 1, Material.GRASS_BLOCK);
+        setBlock(sink, x + 3, Y_HEIGHT + 4, z + 2, Material.GRASS_BLOCK);
+        setBlock(sink, x + 3, Y_HEIGHT + 4, z - 2, Material.GRASS_BLOCK);
+
+        setBlock(sink, x - 3, Y_HEIGHT + 4, z, Material.GRASS_BLOCK);
+        setBlock(sink, x - 3, Y_HEIGHT + 4, z + 1, Material.GRASS_BLOCK);
+        setBlock(sink, x - 3, Y_HEIGHT + 4, z - 1, Material.GRASS_BLOCK);
+        setBlock(sink, x - 3, Y_HEIGHT + 4, z + 2, Material.GRASS_BLOCK);
+        setBlock(sink, x - 3, Y_HEIGHT + 4, z - 2, Material.GRASS_BLOCK);
 
         // Dirt blocks, 2nd layer
-        setBlock(SKYBLOCK_WORLD, x - 1, Y_HEIGHT + 3, z, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x - 1, Y_HEIGHT + 3, z + 1, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x - 1, Y_HEIGHT + 3, z - 1, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x - 1, Y_HEIGHT + 3, z + 2, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x - 1, Y_HEIGHT + 3, z - 2, Material.DIRT);
-
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 3, z, Material.SAND);
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 3, z + 1, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 3, z - 1, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 3, z + 2, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 3, z - 2, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 3, z + 3, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 3, z - 3, Material.DIRT);
-
-        setBlock(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 3, z, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 3, z + 1, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 3, z - 1, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 3, z + 2, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 3, z - 2, Material.DIRT);
-
-        setBlock(SKYBLOCK_WORLD, x + 2, Y_HEIGHT + 3, z, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x + 2, Y_HEIGHT + 3, z + 1, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x + 2, Y_HEIGHT + 3, z - 1, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x + 2, Y_HEIGHT + 3, z + 2, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x + 2, Y_HEIGHT + 3, z - 2, Material.DIRT);
-
-        setBlock(SKYBLOCK_WORLD, x - 2, Y_HEIGHT + 3, z, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x - 2, Y_HEIGHT + 3, z + 1, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x - 2, Y_HEIGHT + 3, z - 1, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x - 2, Y_HEIGHT + 3, z + 2, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x - 2, Y_HEIGHT + 3, z - 2, Material.DIRT);
-
-        setBlock(SKYBLOCK_WORLD, x + 3, Y_HEIGHT + 3, z, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x - 3, Y_HEIGHT + 3, z, Material.DIRT);
+        setBlock(sink, x - 1, Y_HEIGHT + 3, z, Material.DIRT);
+        setBlock(sink, x - 1, Y_HEIGHT + 3, z + 1, Material.DIRT);
+        setBlock(sink, x - 1, Y_HEIGHT + 3, z - 1, Material.DIRT);
+        setBlock(sink, x - 1, Y_HEIGHT + 3, z + 2, Material.DIRT);
+        setBlock(sink, x - 1, Y_HEIGHT + 3, z - 2, Material.DIRT);
+
+        setBlock(sink, x, Y_HEIGHT + 3, z, Material.SAND);
+        setBlock(sink, x, Y_HEIGHT + 3, z + 1, Material.DIRT);
+        setBlock(sink, x, Y_HEIGHT + 3, z - 1, Material.DIRT);
+        setBlock(sink, x, Y_HEIGHT + 3, z + 2, Material.DIRT);
+        setBlock(sink, x, Y_HEIGHT + 3, z - 2, Material.DIRT);
+        setBlock(sink, x, Y_HEIGHT + 3, z + 3, Material.DIRT);
+        setBlock(sink, x, Y_HEIGHT + 3, z - 3, Material.DIRT);
+
+        setBlock(sink, x + 1, Y_HEIGHT + 3, z, Material.DIRT);
+        setBlock(sink, x + 1, Y_HEIGHT + 3, z + 1, Material.DIRT);
+        setBlock(sink, x + 1, Y_HEIGHT + 3, z - 1, Material.DIRT);
+        setBlock(sink, x + 1, Y_HEIGHT + 3, z + 2, Material.DIRT);
+        setBlock(sink, x + 1, Y_HEIGHT + 3, z - 2, Material.DIRT);
+
+        setBlock(sink, x + 2, Y_HEIGHT + 3, z, Material.DIRT);
+        setBlock(sink, x + 2, Y_HEIGHT + 3, z + 1, Material.DIRT);
+        setBlock(sink, x + 2, Y_HEIGHT + 3, z - 1, Material.DIRT);
+        setBlock(sink, x + 2, Y_HEIGHT + 3, z + 2, Material.DIRT);
+        setBlock(sink, x + 2, Y_HEIGHT + 3, z - 2, Material.DIRT);
+
+        setBlock(sink, x - 2, Y_HEIGHT + 3, z, Material.DIRT);
+        setBlock(sink, x - 2, Y_HEIGHT + 3, z + 1, Material.DIRT);
+        setBlock(sink, x - 2, Y_HEIGHT + 3, z - 1, Material.DIRT);
+        setBlock(sink, x - 2, Y_HEIGHT + 3, z + 2, Material.DIRT);
+        setBlock(sink, x - 2, Y_HEIGHT + 3, z - 2, Material.DIRT);
+
+        setBlock(sink, x + 3, Y_HEIGHT + 3, z, Material.DIRT);
+        setBlock(sink, x - 3, Y_HEIGHT + 3, z, Material.DIRT);
         
         // Dirt blocks 3rd layer
-        setBlock(SKYBLOCK_WORLD, x - 1, Y_HEIGHT + 2, z, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x - 1, Y_HEIGHT + 2, z + 1, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x - 1, Y_HEIGHT + 2, z - 1, Material.DIRT);
+        setBlock(sink, x - 1, Y_HEIGHT + 2, z, Material.DIRT);
+        setBlock(sink, x - 1, Y_HEIGHT + 2, z + 1, Material.DIRT);
+        setBlock(sink, x - 1, Y_HEIGHT + 2, z - 1, Material.DIRT);
 
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 2, z, Material.SAND);
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 2, z + 1, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 2, z - 1, Material.DIRT);
+        setBlock(sink, x, Y_HEIGHT + 2, z, Material.SAND);
+        setBlock(sink, x, Y_HEIGHT + 2, z + 1, Material.DIRT);
+        setBlock(sink, x, Y_HEIGHT + 2, z - 1, Material.DIRT);
 
-        setBlock(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 2, z, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 2, z + 1, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 2, z - 1, Material.DIRT);
+        setBlock(sink, x + 1, Y_HEIGHT + 2, z, Material.DIRT);
+        setBlock(sink, x + 1, Y_HEIGHT + 2, z + 1, Material.DIRT);
+        setBlock(sink, x + 1, Y_HEIGHT + 2, z - 1, Material.DIRT);
 
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 2, z - 2, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 2, z + 2, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x + 2, Y_HEIGHT + 2, z, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x - 2, Y_HEIGHT + 2, z, Material.DIRT);
+        setBlock(sink, x, Y_HEIGHT + 2, z - 2, Material.DIRT);
+        setBlock(sink, x, Y_HEIGHT + 2, z + 2, Material.DIRT);
+        setBlock(sink, x + 2, Y_HEIGHT + 2, z, Material.DIRT);
+        setBlock(sink, x - 2, Y_HEIGHT + 2, z, Material.DIRT);
 
         // Dirt blocks 4th layer
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 1, z, Material.SAND);
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 1, z + 1, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x, Y_HEIGHT + 1, z - 1, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 1, z, Material.DIRT);
-        setBlock(SKYBLOCK_WORLD, x - 1, Y_HEIGHT + 1, z, Material.DIRT);
-
-        // Grow the tree
-        SKYBLOCK_WORLD.generateTree(new Location(SKYBLOCK_WORLD, x, Y_HEIGHT + 5, z), TreeType.TREE);
-
-        // Chest
-        Location chestLocation = new Location(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 5, z);
-        setBlock(SKYBLOCK_WORLD, x + 1, Y_HEIGHT + 5, z, Material.CHEST);
-        populateStarterChest(chestLocation);
+        setBlock(sink, x, Y_HEIGHT + 1, z, Material.SAND);
+        setBlock(sink, x, Y_HEIGHT + 1, z + 1, Material.DIRT);
+        setBlock(sink, x, Y_HEIGHT + 1, z - 1, Material.DIRT);
+        setBlock(sink, x + 1, Y_HEIGHT + 1, z, Material.DIRT);
+        setBlock(sink, x - 1, Y_HEIGHT + 1, z, Material.DIRT);
     }
 
     /**
@@ -419,16 +627,14 @@ public class Island {
 
     /**
      * Set a block at a specific location
-     * @param world
+     * @param sink
      * @param x
      * @param y
      * @param z
      * @param material
      */
-    private void setBlock(World world, int x, int y, int z, Material material) {
-        Location location = new Location(world, x, y, z);
-        Block block = world.getBlockAt(location);
-        block.setType(material);
+    private void setBlock(BlockSink sink, int x, int y, int z, Material material) {
+        sink.setBlockType(x, y, z, material);
     }
 
     /**
@@ -437,13 +643,7 @@ public class Island {
      * @return True if the player is a friend, false otherwise
      */
     public boolean hasFriend(UUID playerUUID){
-        // Check if friends has key with playerUUID
-        for (IslandFriend friend : friends) {
-            if (friend.getUUID().equals(playerUUID)) {
-                return true;
-            }
-        }
-        return false;
+        return getFriendSet().contains(playerUUID);
     }
 
     /**
@@ -461,7 +661,50 @@ public class Island {
      * @return True if the player is banned, false otherwise
      */
     public boolean hasBanned(UUID uniqueId) {
-        return banList.contains(uniqueId);
+        return getBanSet().contains(uniqueId);
+    }
+
+    /**
+     * Check if the owner or any friend of the island is online
+     * @return True if a member is online, false otherwise
+     */
+    public boolean hasOnlineMember() {
+        if (Bukkit.getPlayer(ownerUUID) != null) {
+            return true;
+        }
+        for (IslandFriend friend : friends) {
+            if (Bukkit.getPlayer(friend.getUUID()) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the set of friend UUIDs, built from the friends list the first time it is needed.
+     * The friends list is what gets saved, the set only speeds up lookups.
+     * @return Set of friend UUIDs
+     */
+    private Set<UUID> getFriendSet() {
+        if (friendSet == null) {
+            friendSet = new HashSet<>();
+            for (IslandFriend friend : friends) {
+                friendSet.add(friend.getUUID());
+            }
+        }
+        return friendSet;
+    }
+
+    /**
+     * Get the set of banned UUIDs, built from the ban list the first time it is needed.
+     * The ban list is what gets saved, the set only speeds up lookups.
+     * @return Set of banned UUIDs
+     */
+    private Set<UUID> getBanSet() {
+        if (banSet == null) {
+            banSet = new HashSet<>(banList);
+        }
+        return banSet;
     }
 
     ////////////////////////////////////////////////////////////
@@ -470,6 +713,15 @@ public class Island {
     /// They are used by the IslandManager class to interact with islands
     ////////////////////////////////////////////////////////////
 
+    /**
+     * Get the access version. This changes every time the ban list, lock or party of the island changes,
+     * so cached decisions about who may enter the island can be checked against it.
+     * @return access version
+     */
+    public long getAccessVersion(){
+        return accessVersion;
+    }
+
     /**
      * Check if the island has been modified
      * @return True if the island has been modified, false otherwise
@@ -486,6 +738,41 @@ public class Island {
         isModified = modified;
     }
 
+    /**
+     * Mark the island as saved up to a modification count. The modified flag is only cleared
+     * if the island has not changed since the saved record was taken.
+     * @param savedModificationCount
+     */
+    public void markSaved(long savedModificationCount){
+        if (modificationCount == savedModificationCount) {
+            isModified = false;
+        }
+    }
+
+    /**
+     * Create an immutable record of the saved data of the island
+     * @return Island record
+     */
+    public IslandRecord createRecord(){
+        List<IslandFriend> friendCopies = new ArrayList<>(friends.size());
+        for (IslandFriend friend : friends) {
+            friendCopies.add(new IslandFriend(friend));
+        }
+        return new IslandRecord(x, z, name, index, ownerUUID, friendCopies, new ArrayList<>(banList),
+            enterMessage, exitMessage, islandSpawn, islandWarp, isLocked, modificationCount);
+    }
+
+    /**
+     * Flag the island as modified so it is saved, and record the change in the journal
+     */
+    private void markModified(){
+        isModified = true;
+        modificationCount++;
+        if (journal != null) {
+            journal.islandModified(this);
+        }
+    }
+
     /**
      * Get all chunks that the island occupies
      * @return List of chunks
@@ -493,11 +780,11 @@ public class Island {
     public ArrayList<Chunk> getChunks(){
         ArrayList<Chunk> chunks = new ArrayList<>();
 
-        Location center = getIslandCenter();
+        World world = WorldCache.getSkyblockWorld();
 
         // Calculate chunk coordinates for the center of the island
-        int centerChunkX = center.getBlockX() >> 4;
-        int centerChunkZ = center.getBlockZ() >> 4;
+        int centerChunkX = this.x >> 4;
+        int centerChunkZ = this.z >> 4;
 
         // Calculate the number of chunks in each direction (rounded up)
         int chunkRadius = (int) Math.ceil(CHUNK_ISLAND_RADIUS);
@@ -510,7 +797,7 @@ public class Island {
 
                 // Add the chunk if it's within the radius
                 if (distance <= CHUNK_ISLAND_RADIUS) {
-                    Chunk chunk = center.getWorld().getChunkAt(x, z);
+                    Chunk chunk = world.getChunkAt(x, z);
                     chunks.add(chunk);
                 }
             }
@@ -528,18 +815,162 @@ public class Island {
     }
 
     /**
-     * Get the island score breakdown by block type
-     * @return island score breakdown
+     * Get the blocks that contribute the most to the island score, one line per block type.
+     * The message is built when first requested and reused until the score changes.
+     * @return island score breakdown message
      */
-    public Map<String, Double> getScoreBreakdown() {
-        return scoreBreakdown;
+    public Component getScoreBreakdownMessage() {
+        if (scoreBreakdownMessage != null && scoreBreakdownVersion == scoreVersion) {
+            return scoreBreakdownMessage;
+        }
+
+        BlockCounts counts = getBlockCounts();
+        double[] weights = getBlockWeights();
+        boolean[] listed = new boolean[counts.size()];
+        Component message = Component.empty();
+
+        // Select the highest contributing block types, the list is short so repeated passes are cheap
+        for (int line = 0; line < NUM_BLOCKS_IN_SCORE_BREAKDOWN; line++) {
+            int best = -1;
+            double bestValue = 0;
+            for (int position = 0; position < counts.size(); position++) {
+                double value = counts.countAt(position) * weights[counts.ordinalAt(position)];
+                if (!listed[position] && counts.countAt(position) > 0 && (best < 0 || value > bestValue)) {
+                    best = position;
+                    bestValue = value;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            listed[best] = true;
+
+            int ordinal = counts.ordinalAt(best);
+            if (line > 0) {
+                message = message.append(Component.newline());
+            }
+            message = message.append(Component.text("* " + getBlockDisplayName(ordinal) + ": " + String.format("%.2f", bestValue) + " (" + String.format("%.2f", weights[ordinal]) + " each)"));
+        }
+
+        scoreBreakdownMessage = message;
+        scoreBreakdownVersion = scoreVersion;
+        return message;
+    }
+
+    /**
+     * Get the display name of a block type, e.g. "Cobblestone Wall" for COBBLESTONE_WALL
+     * @param ordinal Material.ordinal() of the block type
+     * @return Title cased block name
+     */
+    private static String getBlockDisplayName(int ordinal) {
+        String displayName = BLOCK_DISPLAY_NAMES[ordinal];
+        if (displayName == null) {
+            String[] words = MATERIALS[ordinal].name().toLowerCase().split("_");
+            for (int i = 0; i < words.length; i++) {
+                if (!words[i].isEmpty()) {
+                    words[i] = Character.toUpperCase(words[i].charAt(0)) + words[i].substring(1);
+                }
+            }
+            displayName = String.join(" ", words);
+            BLOCK_DISPLAY_NAMES[ordinal] = displayName;
+        }
+        return displayName;
+    }
+
+    /**
+     * Get a record of the island score to save to file.
+     * The record is built when first requested and reused until the score changes.
+     * @return island score record
+     */
+    public IslandScoreRecord getScoreRecord() {
+        if (scoreRecord == null || scoreRecordVersion != scoreVersion) {
+            scoreRecord = new IslandScoreRecord(this);
+            scoreRecordVersion = scoreVersion;
+        }
+        return scoreRecord;
+    }
+
+    /**
+     * Get the number of blocks of each type on the island
+     * @return block counts
+     */
+    public BlockCounts getBlockCounts() {
+        if (blockCounts == null) {
+            blockCounts = new BlockCounts();
+        }
+        return blockCounts;
+    }
+
+    /**
+     * Set the island score and block counts from a full scan of the island
+     * @param score
+     * @param blockCounts Block count histogram indexed by Material.ordinal()
+     */
+    public void setScore(double score, int[] blockCounts) {
+        setScore(score, blockCounts, System.currentTimeMillis());
+    }
+
+    /**
+     * Set the island score and block counts from a full scan made at an earlier time
+     * @param score
+     * @param blockCounts Block count histogram indexed by Material.ordinal()
+     * @param scoredAt Time in milliseconds of the scan
+     */
+    public void setScore(double score, int[] blockCounts, long scoredAt) {
+        this.score = score;
+        this.blockCounts = new BlockCounts(blockCounts);
+        this.scoredAt = scoredAt;
+        hasScoreBaseline = true;
+        scoreVersion++;
+    }
+
+    /**
+     * Get the time of the last full scan
+     * @return Time in milliseconds, or 0 if the island has not been scanned
+     */
+    public long getScoredAt() {
+        return scoredAt;
+    }
+
+    /**
+     * Clear the score, the island will have no score until it is scanned again
+     */
+    public void resetScore() {
+        score = 0;
+        blockCounts = null;
+        scoredAt = 0;
+        hasScoreBaseline = false;
+        blockChangeVersion++;
+        scoreVersion++;
+    }
+
+    /**
+     * Get the block change version. This changes every time a block change is applied to the score.
+     * @return block change version
+     */
+    public long getBlockChangeVersion() {
+        return blockChangeVersion;
+    }
+
+    /**
+     * Check if the block counts have been set by a full scan
+     * @return True if the island has been scanned
+     */
+    public boolean hasScoreBaseline() {
+        return hasScoreBaseline;
     }
 
     /**
      * Reset all island data to default values. This does not reset the island center or index as these are unique to each island.
      */
     public void resetIslandData(){
-        
+        // Friends are removed from the party, friends is null when called from the constructor
+        if (friends != null && membershipIndex != null) {
+            for (IslandFriend friend : friends) {
+                membershipIndex.remove(friend.getUUID(), index);
+            }
+        }
+
         Player player = Bukkit.getPlayer(ownerUUID);
         name = player.getName() + "\'s Island";
         enterMessage = "Welcome to " + name;
@@ -547,23 +978,29 @@ public class Island {
         ownerUUID = player.getUniqueId();
         friends = new ArrayList<>();
         banList = new ArrayList<>();
+        friendSet = null;
+        banSet = null;
+        if (membershipIndex != null) {
+            membershipIndex.add(ownerUUID, index);
+        }
         setIslandSpawn();
         islandWarp = new IslandLocation(getIslandSpawn());
         isLocked = false;
-        isModified = true;
+        markModified();
+        accessVersion++;
     }
 
     /**
      * Set the island spawn point to the default location. Default spawn offsets are configurable in the config file and are offset from the island center (Bedrock block).
      */
     private void setIslandSpawn(){
-        World SKYBLOCK_WORLD = Bukkit.getWorld(Main.skyblockWorldName);
+        World SKYBLOCK_WORLD = WorldCache.getSkyblockWorld();
         // Set the island spawn point
         Location spawnLocation = new Location(SKYBLOCK_WORLD, x + SPAWN_OFFSET_X, Y_HEIGHT + SPAWN_OFFSET_Y, z + SPAWN_OFFSET_Z);
         spawnLocation.setYaw(SPAWN_OFFSET_YAW);
         spawnLocation.setPitch(SPAWN_OFFSET_PITCH);
         setIslandSpawn(spawnLocation);
-        isModified = true;    
+        markModified();
     }
 
     /**
@@ -572,7 +1009,7 @@ public class Island {
      */
     public void setIslandSpawn(Location location){
         islandSpawn = new IslandLocation(location);
-        isModified = true;
+        markModified();
     }
 
     /**
@@ -581,7 +1018,7 @@ public class Island {
      */
     public void setIslandWarp(Location location){
         islandWarp = new IslandLocation(location);
-        isModified = true;
+        markModified();
     }
 
     /**
@@ -605,7 +1042,31 @@ public class Island {
      * @return island center location
      */
     public Location getIslandCenter(){
-        return new Location(Bukkit.getWorld(Main.skyblockWorldName), x, Y_HEIGHT, z);
+        return new Location(WorldCache.getSkyblockWorld(), x, Y_HEIGHT, z);
+    }
+
+    /**
+     * Get the x coordinate of the island center (Bedrock block)
+     * @return Block x coordinate
+     */
+    public int getCenterX(){
+        return x;
+    }
+
+    /**
+     * Get the y coordinate of the island center (Bedrock block)
+     * @return Block y coordinate
+     */
+    public int getCenterY(){
+        return Y_HEIGHT;
+    }
+
+    /**
+     * Get the z coordinate of the island center (Bedrock block)
+     * @return Block z coordinate
+     */
+    public int getCenterZ(){
+        return z;
     }
 
     /**
@@ -613,7 +1074,8 @@ public class Island {
      */
     public void lockIsland(){
         isLocked = true;
-        isModified = true;
+        accessVersion++;
+        markModified();
     }
 
     /**
@@ -621,7 +1083,8 @@ public class Island {
      */
     public void unlockIsland(){
         isLocked = false;
-        isModified = true;
+        accessVersion++;
+        markModified();
     }
 
     /**
@@ -639,7 +1102,12 @@ public class Island {
      */
     public void addFriend(UUID friendUUID){
         friends.add(new IslandFriend(friendUUID));
-        isModified = true;
+        getFriendSet().add(friendUUID);
+        if (membershipIndex != null) {
+            membershipIndex.add(friendUUID, index);
+        }
+        markModified();
+        accessVersion++;
     }
 
     /**
@@ -647,21 +1115,21 @@ public class Island {
      * @param friendUUID String UUID of the friend to remove
      */
     public void removeFriend(UUID friendUUID){
-        for(IslandFriend friend : friends){
-            if(friend.getUUID().equals(friendUUID)){
-                friends.remove(friend);
-                break;
-            }
+        friends.removeIf(friend -> friend.getUUID().equals(friendUUID));
+        getFriendSet().remove(friendUUID);
+        if (membershipIndex != null && !hasOwner(friendUUID)) {
+            membershipIndex.remove(friendUUID, index);
         }
-        isModified = true;
+        markModified();
+        accessVersion++;
     }
 
     /**
      * Get a list of all friends of the island
-     * @return List of friends
+     * @return Read-only list of friends, use addFriend and removeFriend to change it
      */
     public List<IslandFriend> getFriends(){
-        return friends;
+        return Collections.unmodifiableList(friends);
     }
 
     /**
@@ -670,7 +1138,9 @@ public class Island {
      */
     public void banPlayer(UUID playerUUID){
         banList.add(playerUUID);
-        isModified = true;
+        getBanSet().add(playerUUID);
+        accessVersion++;
+        markModified();
     }
 
     /**
@@ -678,8 +1148,10 @@ public class Island {
      * @param playerUUID
      */
     public void unbanPlayer(UUID playerUUID){
-        banList.remove(playerUUID);
-        isModified = true;
+        banList.removeIf(playerUUID::equals);
+        getBanSet().remove(playerUUID);
+        accessVersion++;
+        markModified();
     }
 
     /**
@@ -696,7 +1168,7 @@ public class Island {
      */
     public void setGreetingMessage(String message){
         enterMessage = message;
-        isModified = true;
+        markModified();
     }
 
     /**
@@ -713,7 +1185,7 @@ public class Island {
      */
     public void setFarewellMessage(String message){
         exitMessage = message;
-        isModified = true;
+        markModified();
     }
 
     /**
@@ -738,7 +1210,7 @@ public class Island {
      */
     public void setName(String name){
         this.name = name;
-        isModified = true;
+        markModified();
     }
 
     /**
@@ -762,8 +1234,15 @@ public class Island {
      * @param newOwnerUUID
      */
     public void setOwnerUUID(UUID newOwnerUUID) {
+        if (membershipIndex != null) {
+            if (!hasFriend(ownerUUID)) {
+                membershipIndex.remove(ownerUUID, index);
+            }
+            membershipIndex.add(newOwnerUUID, index);
+        }
         ownerUUID = newOwnerUUID;
-        isModified = true;
+        markModified();
+        accessVersion++;
     }
 }
 
@@ -20,6 +20,8 @@ import java.util.Set;
 public class IslandCommandManager {
 
     public void registerCommands(CommandManager commandManager, IslandManager islandManager) {
+        commandManager.registerArgumentCompleter("Islands", islandManager::suggestIslands);
+
         SubcommandGroup islandCommands = new SubcommandGroup("island", "Manage your island.");
         islandCommands.setAliases(List.of("is"));
 
@@ -69,7 +71,7 @@ public class IslandCommandManager {
             "info",
             "Check your or another player's island info.",
             (sender, args) -> { islandManager.showIslandInfo(sender, args);})
-            .setRequiredArgs(List.of("All Players"))
+            .setRequiredArgs(List.of("Islands"))
             .setAliases(List.of("level"))
         );
 
@@ -214,6 +216,20 @@ public class IslandCommandManager {
             .setAliases(List.of("tw"))
         );
 
+        islandCommands.addSubcommand(new CommandInfo(
+            "checkmembers",
+            "Check the island membership index.",
+            (sender, args) -> { islandManager.checkMembershipIndex(sender);})
+            .setPermission("op")
+        );
+
+        islandCommands.addSubcommand(new CommandInfo(
+            "scorestats",
+            "Show island scoring statistics.",
+            (sender, args) -> { islandManager.showScoreStats(sender);})
+            .setPermission("op")
+        );
+
         islandCommands.addSubcommand(new CommandInfo(
             "top",
             "Check the top islands.",
@@ -234,7 +250,7 @@ public class IslandCommandManager {
             "Warp to your or another player's island.",
             (sender, args) -> { islandManager.warpTeleport((Player) sender, args);})
             .setPlayerOnly(true)
-            .setRequiredArgs(List.of("All Players"))
+            .setRequiredArgs(List.of("Islands"))
         );
 
         islandCommands.addSubcommand(new CommandInfo(
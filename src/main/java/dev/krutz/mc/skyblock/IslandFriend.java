@@ -4,6 +4,8 @@ import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -18,6 +20,15 @@ public class IslandFriend {
         this.permissions = new ArrayList<String>();
     }
 
+    /**
+     * Create a copy of a friend that does not share the permissions list
+     * @param friend
+     */
+    public IslandFriend(IslandFriend friend){
+        this.uuid = friend.uuid;
+        this.permissions = friend.permissions == null ? new ArrayList<String>() : new ArrayList<String>(friend.permissions);
+    }
+
     public IslandFriend(UUID friendUUID, ArrayList<String> permissions){
         this.uuid = friendUUID;
         this.permissions = permissions;
@@ -50,6 +61,14 @@ public class IslandFriend {
         return this.permissions.contains(permission);
     }
 
+    /**
+     * Get the permissions of your friend
+     * @return Read-only list of permissions
+     */
+    public List<String> getPermissions(){
+        return permissions == null ? List.of() : Collections.unmodifiableList(permissions);
+    }
+
     /**
      * Get the UUID of your friend
      * @return the UUID of your friend
@@ -0,0 +1,60 @@
+package dev.krutz.mc.skyblock;
+
+/**
+ * The layout of islands in the skyblock world. Islands are placed on a fixed grid by index,
+ * MAX_ISLANDS_PER_ROW islands per row, each taking CHUNK_ISLAND_RADIUS chunks in every direction
+ * plus CHUNK_BUFFER chunks of space between islands. The layout can be inverted, so the island
+ * at a block position is found without searching.
+ */
+public final class IslandGrid {
+    // Constants that are not configurable
+    private static final int BLOCKS_PER_CHUNK = 16;
+    private static final double CELL_SIZE = (Island.CHUNK_BUFFER + 2 * Island.CHUNK_ISLAND_RADIUS) * BLOCKS_PER_CHUNK; // Distance in blocks between island centers
+
+    private IslandGrid() {
+    }
+
+    /**
+     * Get the x coordinate of the center of an island
+     * @param index
+     * @return Block x coordinate
+     */
+    public static int getCenterX(int index) {
+        return getCenter(index % Island.MAX_ISLANDS_PER_ROW);
+    }
+
+    /**
+     * Get the z coordinate of the center of an island
+     * @param index
+     * @return Block z coordinate
+     */
+    public static int getCenterZ(int index) {
+        return getCenter(index / Island.MAX_ISLANDS_PER_ROW);
+    }
+
+    /**
+     * Get the index of the grid cell whose island center is nearest to a position.
+     * The position still has to be checked against the island radius.
+     * @param x
+     * @param z
+     * @return Island index, or -1 if the position is outside the grid
+     */
+    public static int getIndexAt(double x, double z) {
+        int column = (int) Math.round((x - getCenter(0)) / CELL_SIZE);
+        int row = (int) Math.round((z - getCenter(0)) / CELL_SIZE);
+        if (column < 0 || column >= Island.MAX_ISLANDS_PER_ROW || row < 0) {
+            return -1;
+        }
+        return row * Island.MAX_ISLANDS_PER_ROW + column;
+    }
+
+    /**
+     * Get the block coordinate of the island centers in a row or column
+     * @param cell Row or column number
+     * @return Block coordinate
+     */
+    private static int getCenter(int cell) {
+        float chunks = ((cell + 1) * Island.CHUNK_BUFFER) + (cell * 2 + 1) * Island.CHUNK_ISLAND_RADIUS;
+        return (int) chunks * BLOCKS_PER_CHUNK + BLOCKS_PER_CHUNK / 2;
+    }
+}
@@ -0,0 +1,373 @@
+package dev.krutz.mc.skyblock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Logger;
+
+/**
+ * A write-ahead journal of island changes, so that changes made between two saves survive a crash.
+ * Islands changed during a tick are recorded once at the end of the tick as a binary copy of the island,
+ * and a writer thread appends them to the journal and flushes everything it has written with a single fsync.
+ * <p>
+ * The journal is split into segment files. Every save starts a new segment, and once the save has been
+ * written to the repository the segments before it are deleted. On startup the remaining segments are
+ * replayed over the loaded islands, the last entry of an island wins.
+ * <p>
+ * Each entry is written as its length, a CRC32 of its contents and the contents. An entry that was only
+ * partly written when the server stopped fails the check, and the rest of that segment is ignored.
+ */
+public class IslandJournal {
+    // Constants that are not configurable
+    private static final String JOURNAL_DIRECTORY = "journal";
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final byte ISLAND_SAVED = 1; // Entry holds the full record of an island
+    private static final byte ISLAND_DELETED = 2; // Entry holds the index of a removed island
+
+    // Instance variables
+    private final File directory;
+    private final Logger logger;
+    private final Map<Integer, Island> pendingIslands = new LinkedHashMap<>(); // Changed since the last flush, null for removed islands
+    private final BlockingQueue<Operation> operations = new LinkedBlockingQueue<>();
+    private long segment = 0; // Segment new entries are appended to, advanced by rotate
+    private Thread writer;
+
+    // Writer thread only
+    private FileChannel channel;
+
+    /**
+     * Create a journal in a folder. Nothing is written until start is called.
+     * @param dataFolder
+     * @param logger
+     */
+    public IslandJournal(File dataFolder, Logger logger) {
+        this.directory = new File(dataFolder, JOURNAL_DIRECTORY);
+        this.logger = logger;
+    }
+
+    /**
+     * Read every entry of the journal, oldest first. Must be called before start.
+     * @return Last record of every island in the journal, by island index. Removed islands map to null.
+     */
+    public Map<Integer, IslandRecord> replay() {
+        Map<Integer, IslandRecord> records = new LinkedHashMap<>();
+        for (long sequence : listSegments()) {
+            segment = Math.max(segment, sequence + 1);
+            File file = getSegmentFile(sequence);
+            try {
+                readSegment(Files.readAllBytes(file.toPath()), records, file.getName());
+            } catch (IOException e) {
+                logger.severe("Failed to read island journal " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Start the writer thread. New entries go to a segment after the replayed ones.
+     */
+    public synchronized void start() {
+        operations.add(new Rotate(segment));
+        writer = new Thread(this::runWriter, "Skyblock-Journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Record that an island changed. The island is written to the journal on the next flush.
+     * @param island
+     */
+    public synchronized void islandModified(Island island) {
+        pendingIslands.put(island.getIndex(), island);
+    }
+
+    /**
+     * Record that an island was removed
+     * @param index
+     */
+    public synchronized void islandDeleted(int index) {
+        pendingIslands.put(index, null);
+    }
+
+    /**
+     * Take records of the islands changed since the last flush and hand them to the writer thread.
+     * Must be called on the main thread, since the islands are read.
+     */
+    public synchronized void flush() {
+        if (pendingIslands.isEmpty()) {
+            return;
+        }
+
+        List<IslandRecord> saved = new ArrayList<>();
+        List<Integer> deleted = new ArrayList<>();
+        pendingIslands.forEach((index, island) -> {
+            if (island == null) {
+                deleted.add(index);
+            } else {
+                saved.add(island.createRecord());
+            }
+        });
+        pendingIslands.clear();
+        operations.add(new Append(saved, deleted));
+    }
+
+    /**
+     * Flush pending changes and start a new segment. Called when a save takes its island records,
+     * so the segments up to the returned one only hold changes that are part of that save.
+     * @return Last segment covered by the save
+     */
+    public synchronized long rotate() {
+        flush();
+        long covered = segment;
+        segment++;
+        operations.add(new Rotate(segment));
+        return covered;
+    }
+
+    /**
+     * Delete the segments that a save has written to the repository
+     * @param lastSegment Segment returned by rotate when the save was taken
+     */
+    public void compact(long lastSegment) {
+        operations.add(new Compact(lastSegment));
+    }
+
+    /**
+     * Write every queued entry and stop the writer thread
+     */
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            flush();
+            thread = writer;
+            writer = null;
+        }
+        if (thread == null) {
+            return;
+        }
+
+        operations.add(new Stop());
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    ////////////////////////////////////////////
+    /// Writer thread
+    ////////////////////////////////////////////
+
+    /**
+     * Write queued operations until stopped. Every operation that is queued while the writer is busy
+     * is taken in one go, so the entries of many ticks share one fsync.
+     */
+    private void runWriter() {
+        List<Operation> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(operations.take());
+            } catch (InterruptedException e) {
+                closeChannel();
+                return;
+            }
+            operations.drainTo(batch);
+
+            boolean written = false;
+            for (Operation operation : batch) {
+                try {
+                    if (operation instanceof Append append) {
+                        written |= append(append);
+                    } else if (operation instanceof Rotate rotate) {
+                        if (written) {
+                            force();
+                            written = false;
+                        }
+                        openSegment(rotate.segment());
+                    } else if (operation instanceof Compact compact) {
+                        deleteSegments(compact.lastSegment());
+                    } else if (operation instanceof Stop) {
+                        if (written) {
+                            force();
+                        }
+                        closeChannel();
+                        return;
+                    }
+                } catch (IOException e) {
+                    // The changes are still saved by the next save, they are only lost if the server crashes first
+                    logger.severe("Failed to write island journal: " + e.getMessage());
+                }
+            }
+            batch.clear();
+
+            try {
+                if (written) {
+                    force();
+                }
+            } catch (IOException e) {
+                logger.severe("Failed to flush island journal: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Append the entries of a flush to the current segment
+     * @param append
+     * @return True if anything was written
+     * @throws IOException
+     */
+    private boolean append(Append append) throws IOException {
+        if (channel == null) {
+            return false;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream entries = new DataOutputStream(bytes);
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+
+        for (IslandRecord record : append.saved()) {
+            payloadBytes.reset();
+            payload.writeByte(ISLAND_SAVED);
+            IslandRecordCodec.write(payload, record);
+            IslandRecordCodec.writeFrame(entries, payloadBytes.toByteArray());
+        }
+        for (int index : append.deleted()) {
+            payloadBytes.reset();
+            payload.writeByte(ISLAND_DELETED);
+            payload.writeInt(index);
+            IslandRecordCodec.writeFrame(entries, payloadBytes.toByteArray());
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return true;
+    }
+
+    private void force() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+    }
+
+    private void openSegment(long sequence) throws IOException {
+        closeChannel();
+        directory.mkdirs();
+        channel = FileChannel.open(getSegmentFile(sequence).toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        SkyblockUtil.syncDirectory(directory.toPath());
+    }
+
+    private void deleteSegments(long lastSegment) {
+        for (long sequence : listSegments()) {
+            if (sequence <= lastSegment && !getSegmentFile(sequence).delete()) {
+                logger.warning("Failed to delete island journal " + getSegmentFile(sequence).getName());
+            }
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warning("Failed to close island journal: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    ////////////////////////////////////////////
+    /// Helper methods
+    ////////////////////////////////////////////
+
+    /**
+     * Read the entries of a segment into records. Reading stops at the first entry that is incomplete or corrupt.
+     * @param data Contents of the segment
+     * @param records
+     * @param name Name of the segment, for logging
+     */
+    private void readSegment(byte[] data, Map<Integer, IslandRecord> records, String name) {
+        ByteArrayInputStream source = new ByteArrayInputStream(data);
+        DataInputStream in = new DataInputStream(source);
+        int entries = 0;
+        while (true) {
+            boolean atEnd = source.available() == 0;
+            try {
+                byte[] payload = IslandRecordCodec.readFrame(in);
+                DataInputStream entry = new DataInputStream(new ByteArrayInputStream(payload));
+                byte type = entry.readByte();
+                if (type == ISLAND_SAVED) {
+                    IslandRecord record = IslandRecordCodec.read(entry);
+                    records.remove(record.getIndex()); // Keep the map in order of the last change
+                    records.put(record.getIndex(), record);
+                } else if (type == ISLAND_DELETED) {
+                    int index = entry.readInt();
+                    records.remove(index);
+                    records.put(index, null);
+                } else {
+                    throw new IOException("Unknown entry type " + type);
+                }
+                entries++;
+            } catch (EOFException e) {
+                if (!atEnd) {
+                    logger.warning("Ignoring incomplete entry at the end of island journal " + name + " after " + entries + " entries");
+                }
+                return;
+            } catch (IOException e) {
+                logger.warning("Ignoring the rest of island journal " + name + " after " + entries + " entries: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private long[] listSegments() {
+        String[] names = directory.list((folder, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (names == null) {
+            return new long[0];
+        }
+
+        long[] sequences = new long[names.length];
+        int count = 0;
+        for (String name : names) {
+            try {
+                sequences[count] = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                count++;
+            } catch (NumberFormatException e) {
+                // Not a segment written by the journal
+            }
+        }
+        long[] sorted = Arrays.copyOf(sequences, count);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private File getSegmentFile(long sequence) {
+        return new File(directory, SEGMENT_PREFIX + sequence + SEGMENT_SUFFIX);
+    }
+
+    private interface Operation {}
+    private record Append(List<IslandRecord> saved, List<Integer> deleted) implements Operation {}
+    private record Rotate(long segment) implements Operation {}
+    private record Compact(long lastSegment) implements Operation {}
+    private record Stop() implements Operation {}
+}
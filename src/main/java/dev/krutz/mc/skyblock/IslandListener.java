@@ -7,6 +7,7 @@ import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerRespawnEvent;
 import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.inventory.EquipmentSlot;
@@ -21,7 +22,6 @@ import net.kyori.adventure.text.format.TextDecoration;
 
 import org.bukkit.entity.Player;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.UUID;
 
@@ -53,6 +53,7 @@ public class IslandListener implements Listener {
 
     // Instance variables
     private HashMap<Player, Island> lastIslandMap = new HashMap<>();
+    private HashMap<UUID, MoveState> moveStates = new HashMap<>();
     private HashMap<UUID, Inventory> openMenus = new HashMap<>();
     private IslandManager islandManager;
 
@@ -109,9 +110,9 @@ public class IslandListener implements Listener {
     public void onPlayerTeleport(PlayerTeleportEvent event){
         Location to = event.getTo();
 
-        if (to.getWorld().getName().equals(Main.skyblockWorldName)){
+        if (WorldCache.isSkyblockWorld(to.getWorld())){
             // If teleport location is to a banned island, cancel the teleport
-            Island toIsland = getIslandAtLocation(islandManager.getAllIslands(), to);
+            Island toIsland = islandManager.getIslandAtLocation(to);
 
             // Check if player is banned from the island
             if (toIsland != null && toIsland.hasBanned(event.getPlayer().getUniqueId())) {
@@ -138,6 +139,8 @@ public class IslandListener implements Listener {
     /**
      * On player move, check if they have entered/left a new island and send greeting/farewell messages.
      * If player is banned from the island, prevent them from entering.
+     * The result is cached per player and only recomputed when the player moves to another block,
+     * or when the island's ban list, lock or party changes. Head rotation reuses the cached result.
      * @param event
      */
     @EventHandler
@@ -147,34 +150,49 @@ public class IslandListener implements Listener {
         Location to = event.getTo();
 
         if (to == null) return;
-            
-        // Check, update, and send messages for island entry/exit
-        checkEnterExitIsland(player, to);
 
-        Island currentIsland = getIslandAtLocation(islandManager.getAllIslands(), to);
+        MoveState state = moveStates.get(player.getUniqueId());
+        if (state == null || !state.isValid(to, islandManager.getIslandLayoutVersion())) {
+            // Check, update, and send messages for island entry/exit
+            checkEnterExitIsland(player, to);
+
+            Island currentIsland = islandManager.getIslandAtLocation(to);
+            UUID playerUUID = player.getUniqueId();
+            boolean banned = currentIsland != null && currentIsland.hasBanned(playerUUID);
+            boolean locked = currentIsland != null && currentIsland.isLocked()
+                && !currentIsland.getOwnerUUID().equals(playerUUID) && !currentIsland.hasFriend(playerUUID);
+
+            state = new MoveState(to, currentIsland, islandManager.getIslandLayoutVersion(), banned, locked);
+            moveStates.put(playerUUID, state);
+        }
 
         // If player is on a banned island, send them to spawn
-        if (currentIsland != null && currentIsland.hasBanned(player.getUniqueId())) {
-            player.sendMessage(Component.text("You are barred from entering " + currentIsland.getName() + ".").color(NamedTextColor.RED));
+        if (state.banned) {
+            player.sendMessage(Component.text("You are barred from entering " + state.island.getName() + ".").color(NamedTextColor.RED));
             event.setCancelled(true);
         }
 
         // If island is locked, send them to spawn
-        if (currentIsland != null && currentIsland.isLocked()) {
-            boolean playerIsOwner = currentIsland.getOwnerUUID().equals(event.getPlayer().getUniqueId());
-            boolean playerIsFriend = currentIsland.hasFriend(event.getPlayer().getUniqueId());
-
-            if (playerIsOwner || playerIsFriend) return;
-
+        if (state.locked) {
             player.sendMessage(Component.text("This island is locked. You cannot enter.").color(NamedTextColor.RED));
             event.setCancelled(true);
         }
     }
 
+    /**
+     * Forget the cached island state of players that leave.
+     * @param event
+     */
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        moveStates.remove(event.getPlayer().getUniqueId());
+        lastIslandMap.remove(event.getPlayer());
+    }
+
     @EventHandler
     public void onPlayerInteract(PlayerInteractEvent event) {
 
-        if(event.getPlayer().getLocation().getWorld().getName().equals(Main.spawnWorldName)) return;
+        if(WorldCache.isSpawnWorld(event.getPlayer().getWorld())) return;
 
         Player player = event.getPlayer();
         Action action = event.getAction();
@@ -185,11 +203,10 @@ public class IslandListener implements Listener {
         // Need to update to block non-block interactions (e.g. snowballs, ender pearls, eggs)
         if (block == null) return;
 
-        Location blockLocation = block.getLocation();
         Material blockType = block.getType();
 
         // Check if the block is within their island boundaries
-        boolean isWithinIsland = isLocationInIsland(blockLocation, islandManager.getIslandByPlayerUUID(player.getUniqueId()));
+        boolean isWithinIsland = islandManager.isBlockOnIsland(block.getWorld(), block.getX(), block.getZ(), islandManager.getIslandByPlayerUUID(player.getUniqueId()));
 
         // Handle block breaking (left-clicking)
         if (action == Action.LEFT_CLICK_BLOCK) {
@@ -315,24 +332,36 @@ public class IslandListener implements Listener {
     private Location findSafeLocation(Location location) {
         World world = location.getWorld();
         if (world == null) return location;
+
+        return findSafeLocation(new WorldBlockAccess(world), location);
+    }
+
+    /**
+     * Find a safe location near the given location given SAFE_SPAWN_RADIUS, reading blocks from a block source.
+     * @param source Blocks around the location
+     * @param location The location to find a safe location near
+     * @return If a safe location is found, return it. Otherwise, return the original location.
+     */
+    public static Location findSafeLocation(BlockSource source, Location location) {
+        int blockX = location.getBlockX();
+        int blockY = location.getBlockY();
+        int blockZ = location.getBlockZ();
     
         // Check progressively larger Manhattan distances
         for (int radius = 0; radius <= SAFE_SPAWN_RADIUS; radius++) {
             for (int x = -radius; x <= radius; x++) {
                 for (int z = -radius; z <= radius; z++) {
+                    // Only check blocks that are exactly at the current radius (Manhattan distance)
+                    if (Math.abs(x) + Math.abs(z) != radius) continue;
+
                     for (int y = -SAFE_SPAWN_RADIUS; y <= SAFE_SPAWN_RADIUS; y++) {
-                        // Only check blocks that are exactly at the current radius (Manhattan distance)
-                        if (Math.abs(x) + Math.abs(z) != radius) continue;
-    
-                        Location checkLocation = location.clone().add(x, y, z);
-    
                         // Get blocks at the current location and below
-                        Material blockType = world.getBlockAt(checkLocation).getType();
-                        Material belowType = world.getBlockAt(checkLocation.clone().add(0, -1, 0)).getType();
+                        Material blockType = source.getBlockType(blockX + x, blockY + y, blockZ + z);
+                        Material belowType = source.getBlockType(blockX + x, blockY + y - 1, blockZ + z);
     
                         // Check for passable block and solid ground below
                         if (blockType.isAir() && belowType.isSolid() && belowType != Material.LAVA) {
-                            return checkLocation;
+                            return location.clone().add(x, y, z);
                         }
                     }
                 }
@@ -344,24 +373,6 @@ public class IslandListener implements Listener {
     }
     
 
-
-    private Island getIslandAtLocation(ArrayList<Island> islands, Location from) {
-        for (Island island : islands) {
-            if(island == null)
-                continue;
-            Location islandCenter = island.getIslandCenter();
-            islandCenter.setY(from.getY());
-            double radiusSquared = island.getRadius() * island.getRadius();  
-
-            if (!from.getWorld().getName().equals(islandCenter.getWorld().getName())) continue;
-
-            if(islandCenter.distanceSquared(from) < radiusSquared) {
-                return island;
-            }
-        }
-        return null;
-    }
-
     public void openIslandMenu(Player player) {
         Inventory menu = Bukkit.createInventory(null, 9, Component.text("Island Menu")
             .color(NamedTextColor.DARK_GREEN)
@@ -439,17 +450,13 @@ public class IslandListener implements Listener {
     public static boolean isLocationInIsland(Location location, Island island) {
         if (island == null) return false;
 
-        Location islandCenter = island.getIslandCenter();
-        islandCenter.setY(location.getY());
-
-        if (!location.getWorld().getName().equals(islandCenter.getWorld().getName())) return false;
+        if (!WorldCache.isSkyblockWorld(location.getWorld())) return false;
 
-        double radiusSquared = island.getRadius() * island.getRadius();
-        return islandCenter.distanceSquared(location) < radiusSquared;
+        return island.isWithinRadius(location.getX(), location.getZ());
     }
 
     private void checkEnterExitIsland(Player player, Location to) {
-        Island currentIsland = getIslandAtLocation(islandManager.getAllIslands(), to);
+        Island currentIsland = islandManager.getIslandAtLocation(to);
         Island lastIsland = lastIslandMap.get(player);
 
         if (currentIsland != lastIsland) {
@@ -471,4 +478,44 @@ public class IslandListener implements Listener {
     }
 
     //TODO if not on friends or the owner, prevent damaging, set to adventure mode
-}
\ No newline at end of file
+
+    /**
+     * The island a player was last seen on and whether they may be there,
+     * valid while the player stays on the same block and nothing about the island changes.
+     */
+    private static class MoveState {
+        private final World world;
+        private final int blockX;
+        private final int blockZ;
+        private final Island island;
+        private final long islandLayoutVersion;
+        private final long accessVersion;
+        private final boolean banned;
+        private final boolean locked;
+
+        MoveState(Location location, Island island, long islandLayoutVersion, boolean banned, boolean locked) {
+            this.world = location.getWorld();
+            this.blockX = location.getBlockX();
+            this.blockZ = location.getBlockZ();
+            this.island = island;
+            this.islandLayoutVersion = islandLayoutVersion;
+            this.accessVersion = island == null ? 0 : island.getAccessVersion();
+            this.banned = banned;
+            this.locked = locked;
+        }
+
+        /**
+         * Check if this state still holds for a location
+         * @param location
+         * @param islandLayoutVersion Current island layout version
+         * @return True if the cached result can be reused
+         */
+        boolean isValid(Location location, long islandLayoutVersion) {
+            return location.getWorld() == world
+                && location.getBlockX() == blockX
+                && location.getBlockZ() == blockZ
+                && this.islandLayoutVersion == islandLayoutVersion
+                && (island == null || island.getAccessVersion() == accessVersion);
+        }
+    }
+}
@@ -2,7 +2,6 @@ package dev.krutz.mc.skyblock;
 
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
 
@@ -17,6 +16,15 @@ public class IslandLocation {
     @Expose @SerializedName("spawn_yaw") private float yaw;
     @Expose @SerializedName("spawn_pitch") private float pitch;
 
+    public IslandLocation(String world, double x, double y, double z, float yaw, float pitch){
+        this.world = world;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.yaw = yaw;
+        this.pitch = pitch;
+    }
+
     public IslandLocation(Location location){
         world = location.getWorld().getName();
         x = location.getX();
@@ -31,7 +39,7 @@ public class IslandLocation {
      * @return
      */
     public Location getLocation(){
-        return new Location(Bukkit.getWorld(world), x, y, z, yaw, pitch);
+        return new Location(getWorld(), x, y, z, yaw, pitch);
     }
 
     /**
@@ -39,6 +47,34 @@ public class IslandLocation {
      * @return
      */
     public World getWorld(){
-        return Bukkit.getWorld(world);
+        return WorldCache.getWorld(world);
+    }
+
+    /**
+     * Get the name of the world of this island location
+     * @return world name
+     */
+    public String getWorldName(){
+        return world;
+    }
+
+    public double getX(){
+        return x;
+    }
+
+    public double getY(){
+        return y;
+    }
+
+    public double getZ(){
+        return z;
+    }
+
+    public float getYaw(){
+        return yaw;
+    }
+
+    public float getPitch(){
+        return pitch;
     }
 }
\ No newline at end of file
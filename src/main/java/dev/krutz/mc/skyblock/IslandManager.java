@@ -3,25 +3,28 @@ package dev.krutz.mc.skyblock;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.World;
 import org.bukkit.block.Biome;
+import org.bukkit.block.Block;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
@@ -29,9 +32,6 @@ import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 
 /**
  * This singleton controller enables all island management tasks, such as creating, resetting, and teleporting to islands.
@@ -40,9 +40,13 @@ public class IslandManager {
     private static IslandManager instance;
 
     // Configurable values
-    private static final String ISLANDS_FILE = "island-data.json"; // Path to your islands data file
-    private static final long SCORE_TASK_INTERVAL = 100L; // Interval in ticks to calculate island scores
+    private static final String STORAGE_TYPE = "binary"; // Island storage, "binary" for a single binary file, "json" for one file per island or "sqlite" for an embedded database
+    private static final String DATABASE_FILE = "islands.db"; // Database file used by the sqlite storage type
+    private static final int MAX_ISLAND_SUGGESTIONS = 50;
+    private static final long SCORE_TASK_INTERVAL = 20 * 60 * 5; // Interval in ticks to rescan islands with changed chunks, live block changes are applied as they happen
     private static final long SAVE_TASK_INTERVAL = 20 * 60 * 5; // Interval in ticks to save island data to file
+    private static final long JOURNAL_FLUSH_INTERVAL = 1; // Interval in ticks to write changed islands to the journal
+    private static final long SAVE_SHUTDOWN_TIMEOUT_SECONDS = 30; // Time to wait for pending saves when the plugin is disabled
     private static final long INVITATION_EXPIRATION_TIME = 20 * 30; // Time in ticks before an invitation expires
     private static final int NUM_ISLANDS_IN_TOP_ISLANDS_MESSAGE = 10; // Number of islands to display in the top islands message
 
@@ -51,9 +55,27 @@ public class IslandManager {
     private Map<Integer, Island> islands = new ConcurrentHashMap<>();
     private Map<String, Island> islandInvites = new ConcurrentHashMap<>();
     private Map<Integer, Double> islandScores = new ConcurrentHashMap<>();
-
+    private final ChunkIslandTable chunkIslands = new ChunkIslandTable(); // Chunk key to index of the island owning it, main thread only
+    private final Set<Long> dirtyChunks = new HashSet<>(); // Chunks changed since the last score pass, main thread only
+    private final Set<Integer> deletedIslands = ConcurrentHashMap.newKeySet(); // Islands whose data file is deleted on the next save
+    private final IslandRepository repository;
+    private final IslandJournal journal;
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        // Saves are written one at a time, in the order they were taken
+        Thread thread = new Thread(runnable, "Skyblock-IO");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final IslandMembershipIndex membershipIndex = new IslandMembershipIndex();
+    private volatile IslandRegistry registry = new IslandRegistry(List.of(), 0); // Republished every time an island is created, removed or restarted
+
+    private IslandScoreEngine scoreEngine;
+    private final PlayerProfileCache profileCache;
+    private IslandSearchIndex searchIndex; // Rebuilt on the next search after islands or members change
+    private int scorePassesCoalesced = 0;
     private BukkitTask taskScore;
     private BukkitTask taskAutosave;
+    private BukkitTask taskJournal;
 
     /**
      * Get the instance of the IslandManager singleton.
@@ -79,9 +101,17 @@ public class IslandManager {
                 instance.taskScore.cancel();
             }
 
+            if (instance.scoreEngine != null) {
+                instance.scoreEngine.shutdown();
+            }
+
             if (instance.taskAutosave != null) {
                 instance.taskAutosave.cancel();
             }
+
+            if (instance.taskJournal != null) {
+                instance.taskJournal.cancel();
+            }
         }
     }
 
@@ -93,10 +123,14 @@ public class IslandManager {
      */
     private IslandManager(JavaPlugin plugin) {
         this.plugin = plugin;
+        this.profileCache = PlayerProfileCache.getInstance(plugin);
+        this.repository = createRepository();
+        this.journal = new IslandJournal(plugin.getDataFolder(), plugin.getLogger());
+        Island.setMembershipIndex(membershipIndex);
 
         startAsyncTasks();
-        loadData();
         loadBlockWeights();
+        loadData();
     }
 
     /**
@@ -110,28 +144,55 @@ public class IslandManager {
             Bukkit.getLogger().info("Island score calculation task started.");
             saveDataToFileAsync();
             Bukkit.getLogger().info("Island data autosave task started.");
+            flushJournalAsync();
         }
     }
 
     /**
      * Calculate the scores of all islands asynchronously.
-     * This task runs every SCORE_TASK_INTERVAL ticks. 
+     * Every SCORE_TASK_INTERVAL ticks this task queues the islands with dirty chunks with the score engine,
+     * along with any island that has not been scored yet. Unchanged islands keep their cached score.
+     * If the previous pass is still running the pass is skipped, its dirty chunks carry over to the next pass.
+     * The engine captures chunk snapshots on the main thread and scans them off the main thread.
+     * Scores are kept up to date by IslandScoreListener in between, this pass only reconciles them.
      * This value can be changed in the config.
      */
     public void calculateIslandScoresAsync() {
+        scoreEngine = new IslandScoreEngine(plugin, island -> islandScores.put(island.getIndex(), island.getScore()));
+        scoreEngine.start();
+
         taskScore = new BukkitRunnable() {
             @Override
             public void run() {
-                for (Island island : islands.values()) {
-                    island.calculateScore();
-                    islandScores.put(island.getIndex(), island.getScore());
+                if (scoreEngine.isBusy()) {
+                    scorePassesCoalesced++;
+                    return;
+                }
+
+                // Collect the islands that own a dirty chunk
+                Set<Integer> dirtyIslands = new HashSet<>();
+                for (long chunkKey : dirtyChunks) {
+                    int index = chunkIslands.get(chunkKey);
+                    if (index != ChunkIslandTable.NO_ISLAND) {
+                        dirtyIslands.add(index);
+                    }
+                }
+                dirtyChunks.clear();
+
+                IslandRegistry snapshot = registry;
+                for (int i = 0; i < snapshot.size(); i++) {
+                    Island island = snapshot.get(i);
+                    if (!island.hasScoreBaseline() || dirtyIslands.contains(island.getIndex())) {
+                        scoreEngine.queue(island);
+                    }
                 }
             }
-        }.runTaskTimerAsynchronously(plugin, 0, SCORE_TASK_INTERVAL);
+        }.runTaskTimer(plugin, 0, SCORE_TASK_INTERVAL);
     }
 
     /**
      * Automatically save island data to file every SAVE_TASK_INTERVAL minutes.
+     * The task runs on the main thread to take island records, the files are written on the I/O thread.
      */
     public void saveDataToFileAsync() {
         taskAutosave = new BukkitRunnable() {
@@ -139,21 +200,58 @@ public class IslandManager {
             public void run() {
                 saveData();
             }
-        }.runTaskTimerAsynchronously(plugin, 0, SAVE_TASK_INTERVAL);
+        }.runTaskTimer(plugin, SAVE_TASK_INTERVAL, SAVE_TASK_INTERVAL);
     }
 
     /**
-     * Get the file where island data is stored. ISLANDS_FILE is configured in the config.
-     * @return File object representing the island data file
+     * Write the islands changed during the tick to the journal every JOURNAL_FLUSH_INTERVAL ticks.
+     * Records are taken on the main thread, the writer thread of the journal writes and flushes them to disk.
+     */
+    private void flushJournalAsync() {
+        taskJournal = new BukkitRunnable() {
+            @Override
+            public void run() {
+                journal.flush();
+            }
+        }.runTaskTimer(plugin, JOURNAL_FLUSH_INTERVAL, JOURNAL_FLUSH_INTERVAL);
+    }
+
+    /**
+     * Create the island storage selected by STORAGE_TYPE. When the binary or sqlite storage is first used,
+     * the islands stored as JSON, including an islands file of an older version, are copied into it.
+     * Switching back to JSON copies the islands of the binary file into JSON files the same way.
+     * @return Island repository
      */
-    private File getIslandFile() {
+    private IslandRepository createRepository() {
         File dataFolder = plugin.getDataFolder();
         if (!dataFolder.exists()) {
             plugin.getLogger().info("Creating plugin data folder...");
             dataFolder.mkdir();
         }
 
-        return  new File(dataFolder, ISLANDS_FILE);
+        JsonIslandRepository jsonRepository = new JsonIslandRepository(dataFolder, plugin.getLogger());
+
+        // Falling back to JSON would leave the storage out of date, so a storage that fails to open stops the plugin
+        try {
+            IslandRepository repository;
+            IslandRepository previousRepository = jsonRepository;
+            if (STORAGE_TYPE.equalsIgnoreCase("sqlite")) {
+                repository = new SqliteIslandRepository(new File(dataFolder, DATABASE_FILE), plugin.getLogger());
+            } else if (STORAGE_TYPE.equalsIgnoreCase("binary")) {
+                repository = new BinaryIslandRepository(dataFolder, plugin.getLogger());
+            } else {
+                repository = jsonRepository;
+                previousRepository = new BinaryIslandRepository(dataFolder, plugin.getLogger());
+            }
+
+            if (repository.isEmpty() && !previousRepository.isEmpty()) {
+                int copied = IslandRepository.copy(previousRepository, repository);
+                plugin.getLogger().info("Migrated " + copied + " islands to " + STORAGE_TYPE + " storage.");
+            }
+            return repository;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open the island storage", e);
+        }
     }
 
     /**
@@ -171,25 +269,71 @@ public class IslandManager {
     }
 
     /**
-     * Load island data from file and populate the islands map.
+     * Load island data from the repository and populate the islands map.
+     * Changes in the journal that were not saved before the server stopped are applied on top,
+     * and the islands they touch are saved again by the next save.
      */
     private void loadData() {
-        try (FileReader reader = new FileReader(getIslandFile())) 
-        { 
-            Gson gson = new Gson(); 
-            ArrayList<Island> loadedIslands = gson.fromJson(reader, new TypeToken<List<Island>>() {}.getType());
-            if (loadedIslands != null) {
-                for (Island island : loadedIslands) {
-                    islands.put(island.getIndex(), island);
-                }
-                // Get last island index
-                Island.setLastIslandIndex(loadedIslands.size());
-            }
+        List<Island> loadedIslands = new ArrayList<>();
+        try {
+            loadedIslands = repository.loadIslands();
         }
         catch (IOException e) {
             e.printStackTrace();
         }
+        for (Island island : loadedIslands) {
+            islands.put(island.getIndex(), island);
+        }
+
+        Map<Integer, IslandRecord> journaled = journal.replay();
+        journaled.forEach((index, record) -> {
+            if (record == null) {
+                islands.remove(index);
+                deletedIslands.add(index);
+            } else {
+                Island island = record.toIsland();
+                island.setModified(true);
+                islands.put(index, island);
+                deletedIslands.remove(index);
+            }
+        });
+        if (!journaled.isEmpty()) {
+            plugin.getLogger().info("Recovered " + journaled.size() + " changed islands from the journal.");
+        }
+        journal.start();
+        Island.setJournal(journal);
 
+        int lastIndex = -1;
+        for (Island island : islands.values()) {
+            registerIslandChunks(island);
+            lastIndex = Math.max(lastIndex, island.getIndex());
+        }
+        // New islands continue after the highest index, removed islands leave gaps
+        Island.setLastIslandIndex(lastIndex + 1);
+        membershipIndex.rebuild(islands.values());
+        publishRegistry();
+
+        loadScores();
+    }
+
+    /**
+     * Load the last computed island scores from the repository. Islands with a stored score are not rescanned
+     * until their chunks change, islands without one are scanned by the next score pass.
+     */
+    private void loadScores() {
+        try {
+            for (IslandScoreRecord record : repository.loadScores()) {
+                Island island = islands.get(record.getIndex());
+                if (island == null) {
+                    continue;
+                }
+                record.apply(island);
+                islandScores.put(island.getIndex(), island.getScore());
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            plugin.getLogger().warning("Failed to load island scores, islands will be rescanned: " + e.getMessage());
+        }
     }
 
     /**
@@ -230,27 +374,121 @@ public class IslandManager {
     }
 
     /**
-     * Save island data to file.
+     * Save island data to file. Only islands that have been modified since the last save are written,
+     * so the cost of a save grows with the number of changed islands.
+     * Records of the islands are taken here, on the main thread, and written on the I/O thread.
+     * The journal moves to a new segment, and the segments before it are deleted once the save is written.
+     * Must be called on the main thread.
      */
     public void saveData(){
-        Gson gson = new GsonBuilder()
-            .setPrettyPrinting()
-            .excludeFieldsWithoutExposeAnnotation()
-            .create(); 
-        String json = gson.toJson(islands.values()); 
-        
-        try (FileWriter writer = new FileWriter(getIslandFile())) 
-        { 
-            writer.write(json);
+        long journalSegment = journal.rotate();
+        List<IslandRecord> records = new ArrayList<>();
+        for (Island island : islands.values()) {
+            if (island.isModified()) {
+                records.add(island.createRecord());
+            }
+        }
+
+        List<Integer> deleted = new ArrayList<>(deletedIslands);
+        deletedIslands.removeAll(deleted);
+
+        List<IslandScoreRecord> scoreRecords = createScoreRecords();
+
+        ioExecutor.execute(() -> writeData(records, deleted, scoreRecords, journalSegment));
+    }
+
+    /**
+     * Save all modified islands and wait for every pending write to finish. Called when the plugin is disabled.
+     */
+    public void shutdown(){
+        // Stop the score engine first, so no scan is applied while the islands are saved
+        if (scoreEngine != null) {
+            scoreEngine.shutdown();
+        }
+        saveData();
+        ioExecutor.shutdown();
+        try {
+            if (!ioExecutor.awaitTermination(SAVE_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                plugin.getLogger().severe("Island data was still being saved after " + SAVE_SHUTDOWN_TIMEOUT_SECONDS + " seconds.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+        repository.close();
+    }
 
-            // Mark islands as not modified after saving 
-            islands.values().forEach(island -> island.setModified(false));
+    /**
+     * Save island records, delete removed islands and save the scores to the repository. Runs on the I/O thread.
+     * Islands are marked as saved on the main thread afterwards, unless they changed after their record was taken.
+     * @param records
+     * @param deleted
+     * @param scoreRecords
+     * @param journalSegment Last journal segment with changes that are part of this save
+     */
+    private void writeData(List<IslandRecord> records, List<Integer> deleted, List<IslandScoreRecord> scoreRecords, long journalSegment){
+        Map<Integer, Long> saved = new HashMap<>();
+        boolean complete = true;
+        try {
+            repository.saveIslands(records);
+            for (IslandRecord record : records) {
+                saved.put(record.getIndex(), record.getModificationCount());
+            }
+        } catch (IOException e) {
+            // The islands stay modified and are saved again by the next save
+            plugin.getLogger().severe("Failed to save island data: " + e.getMessage());
+            complete = false;
+        }
 
-            Bukkit.getLogger().info("Island data autosaved to file.");
+        try {
+            repository.deleteIslands(deleted);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to delete removed islands: " + e.getMessage());
+            deletedIslands.addAll(deleted);
+            complete = false;
+        }
+
+        // The journal is kept until a save has written every change in it
+        if (complete) {
+            journal.compact(journalSegment);
+        }
+
+        try {
+            repository.saveScores(scoreRecords);
         } catch (IOException e) { 
             e.printStackTrace();
         }
-    } 
+
+        if (saved.isEmpty()) {
+            return;
+        }
+        plugin.getLogger().info("Island data autosaved to file. " + saved.size() + " modified islands saved.");
+
+        // The plugin is disabled during shutdown, islands are not saved again after that
+        if (plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, () -> saved.forEach((index, modificationCount) -> {
+                Island island = islands.get(index);
+                if (island != null) {
+                    island.markSaved(modificationCount);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Create a record of the last computed score of every scanned island, to be saved to file.
+     * Islands that have not been scanned are left out so they are scanned after a restart.
+     * @return Score records
+     */
+    private List<IslandScoreRecord> createScoreRecords(){
+        List<IslandScoreRecord> records = new ArrayList<>();
+        for (Island island : islands.values()) {
+            if (island.hasScoreBaseline()) {
+                records.add(island.getScoreRecord());
+            }
+        }
+        return records;
+    }
 
     /**
      * Reset the player's state and clear their island.
@@ -284,17 +522,12 @@ public class IslandManager {
      * @return Island object or null if not found
      */
     public Island getIslandByOwnerUUID(UUID uuid){
-        for (Island island : islands.values()) {
-            if(island == null){
-                continue;
-            }
-
-            if(island.hasOwner(uuid)){
-                return island;
-            }
+        Island island = getIslandByPlayerUUID(uuid);
+        if(island == null || !island.hasOwner(uuid)){
+            return null;
         }
 
-        return null;
+        return island;
     }
 
     /**
@@ -303,29 +536,181 @@ public class IslandManager {
      * @return Island object or null if not found
      */
     public Island getIslandByPlayerUUID(UUID uuid){
-        for (Island island : islands.values()) {
-            if(island == null){
-                continue;
-            }
+        Integer index = membershipIndex.get(uuid);
+        if(index == null){
+            return null;
+        }
 
-            if(island.hasOwner(uuid)){
-                return island;
-            }
+        return islands.get(index);
+    }
 
-            if(island.hasFriend(uuid)){
-                return island;
-            }
+    /**
+     * Get the island at a location. The grid layout gives the only island that can
+     * contain the location, so this takes the same time for any number of islands.
+     * @param location
+     * @return Island object or null if the location is not on an island
+     */
+    public Island getIslandAtLocation(Location location){
+        if(!WorldCache.isSkyblockWorld(location.getWorld())){
+            return null;
+        }
+
+        int index = IslandGrid.getIndexAt(location.getX(), location.getZ());
+        Island island = index < 0 ? null : islands.get(index);
+        if(island == null || !island.isWithinRadius(location.getX(), location.getZ())){
+            return null;
+        }
+
+        return island;
+    }
+
+    /**
+     * Get the island layout version. This changes every time an island is created, removed or restarted,
+     * so cached island lookups by location can be checked against it.
+     * @return island layout version
+     */
+    public long getIslandLayoutVersion(){
+        return registry.getVersion();
+    }
+
+    /**
+     * Find an island by island name, owner name or member name. Only whole names match, so a command
+     * never acts on another island whose name merely starts with the query. Prefixes are for tab completion.
+     * @param query Case-insensitive name
+     * @return Island object or null if no name matches
+     */
+    public Island findIsland(String query){
+        int index = getSearchIndex().find(query);
+        return index == -1 ? null : islands.get(index);
+    }
+
+    /**
+     * Suggest island names, owner names and member names for tab completion
+     * @param prefix Case-insensitive prefix
+     * @return Suggested names in alphabetical order
+     */
+    public List<String> suggestIslands(String prefix){
+        return getSearchIndex().suggest(prefix, MAX_ISLAND_SUGGESTIONS);
+    }
+
+    /**
+     * Get the island search index, rebuilding it if islands, members or player names have changed since it was built.
+     * Only cached player names are indexed, so building the index never reads player data.
+     * @return Island search index
+     */
+    private IslandSearchIndex getSearchIndex(){
+        IslandRegistry current = registry;
+        long membershipVersion = membershipIndex.getVersion();
+        long nameVersion = profileCache.getVersion();
+        if(searchIndex == null || !searchIndex.isCurrent(current.getVersion(), membershipVersion, nameVersion)){
+            searchIndex = IslandSearchIndex.build(current, membershipVersion, nameVersion, profileCache::getCachedName);
+        }
+        return searchIndex;
+    }
+
+    /**
+     * Publish a new snapshot of all islands. Must be called on the main thread.
+     */
+    private void publishRegistry(){
+        registry = new IslandRegistry(islands.values(), registry.getVersion() + 1);
+    }
+
+    /**
+     * Get the island whose score area contains a block.
+     * @param x
+     * @param y
+     * @param z
+     * @return Island object or null if not found
+     */
+    public Island getIslandAtBlock(int x, int y, int z){
+        int index = chunkIslands.get(SkyblockUtil.chunkKey(x >> 4, z >> 4));
+        if(index == ChunkIslandTable.NO_ISLAND){
+            return null;
+        }
+
+        Island island = islands.get(index);
+        if(island == null || !island.isInScoreArea(x, y, z)){
+            return null;
+        }
+
+        return island;
+    }
+
+    /**
+     * Apply a block change in the skyblock world to the score of the island it belongs to.
+     * The chunk is marked dirty so the island is reconciled on the next score pass.
+     * Must be called on the main thread.
+     * @param x
+     * @param y
+     * @param z
+     * @param oldType Block type before the change
+     * @param newType Block type after the change
+     * @param changedAtTick Server tick the change happened in
+     */
+    public void applyBlockChange(int x, int y, int z, Material oldType, Material newType, int changedAtTick){
+        if(oldType == newType){
+            return;
+        }
+
+        Island island = getIslandAtBlock(x, y, z);
+        if(island == null){
+            return;
+        }
+
+        dirtyChunks.add(SkyblockUtil.chunkKey(x >> 4, z >> 4));
+        island.applyBlockChange(oldType, newType);
+        islandScores.put(island.getIndex(), island.getScore());
+        if(scoreEngine != null){
+            scoreEngine.recordBlockChange(island, x >> 4, z >> 4, oldType, newType, changedAtTick);
+        }
+    }
+
+    /**
+     * Check if a block is on an island: one lookup in the chunk table and a radius check.
+     * Used by protection checks.
+     * @param world
+     * @param blockX
+     * @param blockZ
+     * @param island
+     * @return True if the block is within the island radius
+     */
+    public boolean isBlockOnIsland(World world, int blockX, int blockZ, Island island){
+        if(island == null || !WorldCache.isSkyblockWorld(world)){
+            return false;
         }
 
-        return null;
+        return chunkIslands.get(SkyblockUtil.chunkKey(blockX >> 4, blockZ >> 4)) == island.getIndex()
+            && island.isWithinRadius(blockX, blockZ);
+    }
+
+    /**
+     * Map the chunks of an island to the island. The island's own grid cell (the score area) is used
+     * rather than Island.getChunks(), which loads the chunks and reaches into the neighboring cells.
+     * @param island
+     */
+    private void registerIslandChunks(Island island){
+        for (long chunkKey : island.getScoreChunkKeys()) {
+            chunkIslands.put(chunkKey, island.getIndex());
+        }
+    }
+
+    /**
+     * Remove the chunks in an island's score area from the chunk map
+     * @param island
+     */
+    private void unregisterIslandChunks(Island island){
+        for (long chunkKey : island.getScoreChunkKeys()) {
+            chunkIslands.remove(chunkKey, island.getIndex());
+            dirtyChunks.remove(chunkKey);
+        }
     }
 
     /**
-     * Get all skyblock islands.
-     * @return List of all islands
+     * Get all skyblock islands. The snapshot is shared and never changes, iterate it with size() and get(i).
+     * @return Snapshot of all islands
      */
-    public ArrayList<Island> getAllIslands() {
-        return islands.values().stream().collect(Collectors.toCollection(ArrayList::new));
+    public IslandRegistry getAllIslands() {
+        return registry;
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////
@@ -387,8 +772,8 @@ public class IslandManager {
 
         for(Player p : islandPlayers){
             // If they are in the skyblock world, move player to spawn
-            if( p.getLocation().getWorld().getName().equals(Main.skyblockWorldName))
-            p.teleport(Bukkit.getWorld(Main.spawnWorldName).getSpawnLocation());
+            if( WorldCache.isSkyblockWorld(p.getWorld()))
+            p.teleport(WorldCache.getSpawnWorld().getSpawnLocation());
             
             // Reset player's state
             resetPlayerData(p);
@@ -401,12 +786,18 @@ public class IslandManager {
             
         }
 
+         // A scan of the old blocks must not become the score of the new island
+         scoreEngine.cancel(island);
+
          // Clear the island
          island.clearIslandBlocks();
 
          // Reset the island data to default and rebuild the island
          island.resetIslandData();
          island.buildIsland();
+         islandScores.put(island.getIndex(), island.getScore());
+         scoreEngine.queue(island);
+         publishRegistry();
 
          player.teleport(island.getIslandSpawn());
     }
@@ -489,6 +880,9 @@ public class IslandManager {
         newIsland.buildIsland();
 
         islands.put(newIsland.getIndex(), newIsland);
+        registerIslandChunks(newIsland);
+        publishRegistry();
+        scoreEngine.queue(newIsland);
 
         // Teleport the player to the new island spawn point
         player.teleport(newIsland.getIslandSpawn());
@@ -530,7 +924,7 @@ public class IslandManager {
         }
 
         // Check if friend is in same world
-        if(!friend.getLocation().getWorld().getName().equals(island.getIslandSpawn().getWorld().getName())){
+        if(!WorldCache.isSkyblockWorld(friend.getWorld())){
             player.sendMessage("Player " + friendName + " is not in the same world as your island.");
             return;
         }
@@ -554,27 +948,51 @@ public class IslandManager {
      * @param args - Optional player name to teleport to
      */
     public void warpTeleport(Player player, String[] args) {
-        OfflinePlayer targetPlayer = player;
-        if(args.length >= 1){
-            targetPlayer = Bukkit.getOfflinePlayer(args[0]);
+        if(args.length < 1){
+            warpTeleport(player, getIslandByPlayerUUID(player.getUniqueId()), player.getName());
+            return;
+        }
+
+        // Island names, owners and members are found without resolving a player
+        String targetName = String.join(" ", args);
+        Island found = findIsland(targetName);
+        if(found != null){
+            warpTeleport(player, found, targetName);
+            return;
         }
 
+        profileCache.resolve(targetName, targetUUID -> {
+            if(!player.isOnline()) return;
+            if(targetUUID == null){
+                player.sendMessage(targetName + " could not be found.");
+                return;
+            }
+            warpTeleport(player, getIslandByPlayerUUID(targetUUID), targetName);
+        });
+    }
+
+    /**
+     * Teleport the player to the warp location of an island
+     * @param player
+     * @param island Island of the target, null if the target does not have an island
+     * @param targetName
+     */
+    private void warpTeleport(Player player, Island island, String targetName) {
         // Check if target player has an island
-        Island island = getIslandByPlayerUUID(targetPlayer.getUniqueId());
         if(island == null){
-            player.sendMessage(targetPlayer.getName() + " does not have an island to warp to.");
+            player.sendMessage(targetName + " does not have an island to warp to.");
             return;
         }
 
         // Check if target player has a warp location set
         if(island.getIslandWarp() == null){
-            player.sendMessage(targetPlayer.getName() + " does not have a warp location set.");
+            player.sendMessage(targetName + " does not have a warp location set.");
             return;
         }
 
         // Check if island warp is open
         if(island.isLocked() && !island.hasFriend(player.getUniqueId()) && !island.hasOwner(player.getUniqueId())){
-            player.sendMessage(targetPlayer.getName() + "'s island warp is not open.");
+            player.sendMessage(targetName + "'s island warp is not open.");
             return;
         }
 
@@ -778,7 +1196,13 @@ public class IslandManager {
             // If player is the owner, delete the island
             if (currentIsland.getOwnerUUID().equals(player.getUniqueId())) {
                 islands.remove(currentIsland.getIndex());
+                deletedIslands.add(currentIsland.getIndex());
+                journal.islandDeleted(currentIsland.getIndex());
+                scoreEngine.cancel(currentIsland);
                 islandScores.remove(currentIsland.getIndex());
+                unregisterIslandChunks(currentIsland);
+                membershipIndex.unregister(currentIsland);
+                publishRegistry();
             } else {
                 // Remove player from friends list
                 currentIsland.removeFriend(player.getUniqueId());
@@ -834,42 +1258,46 @@ public class IslandManager {
             return;
         }
 
-        Island island = getIslandByOwnerUUID(player.getUniqueId());
-        if (island == null) {
+        if (getIslandByOwnerUUID(player.getUniqueId()) == null) {
             player.sendMessage("You do not own an island to ban players from.");
             return;
         }
 
         String bannedPlayerName = args[0];
-        OfflinePlayer bannedPlayer = Bukkit.getOfflinePlayer(bannedPlayerName);
-
-        if (bannedPlayer == null) {
-            player.sendMessage(bannedPlayerName + " could not be found.");
-            return;
-        }
+        profileCache.resolve(bannedPlayerName, bannedUUID -> {
+            // The island may have changed while the name was being resolved
+            Island island = getIslandByOwnerUUID(player.getUniqueId());
+            if (island == null || !player.isOnline()) return;
+
+            if (bannedUUID == null) {
+                player.sendMessage(bannedPlayerName + " could not be found.");
+                return;
+            }
 
-        // Prevent banning self
-        if (bannedPlayer.getUniqueId().equals(player.getUniqueId())) {
-            player.sendMessage("You cannot ban yourself from the island.");
-            return;
-        }
+            // Prevent banning self
+            if (bannedUUID.equals(player.getUniqueId())) {
+                player.sendMessage("You cannot ban yourself from the island.");
+                return;
+            }
 
-        if (island.hasFriend(bannedPlayer.getUniqueId())) {
-            kickPlayerFromIsland(player, args);
-        }
+            if (island.hasFriend(bannedUUID)) {
+                kickPlayerFromIsland(player, args);
+            }
 
-        // If player is already banned, do nothing
-        if (island.hasBanned(bannedPlayer.getUniqueId())) {
-            player.sendMessage(bannedPlayerName + " is already banned from the island.");
-            return;
-        }
+            // If player is already banned, do nothing
+            if (island.hasBanned(bannedUUID)) {
+                player.sendMessage(bannedPlayerName + " is already banned from the island.");
+                return;
+            }
 
-        island.banPlayer(bannedPlayer.getUniqueId());
-        player.sendMessage(bannedPlayerName + " has been banned from the island.");
+            island.banPlayer(bannedUUID);
+            player.sendMessage(bannedPlayerName + " has been banned from the island.");
 
-        if (bannedPlayer.isOnline()) {
-            bannedPlayer.getPlayer().sendMessage("You have been banned from the island by " + player.getName() + ".");
-        }
+            Player bannedPlayer = Bukkit.getPlayer(bannedUUID);
+            if (bannedPlayer != null) {
+                bannedPlayer.sendMessage("You have been banned from the island by " + player.getName() + ".");
+            }
+        });
     }
 
     /**
@@ -883,31 +1311,35 @@ public class IslandManager {
             return;
         }
 
-        Island island = getIslandByOwnerUUID(player.getUniqueId());
-        if (island == null) {
+        if (getIslandByOwnerUUID(player.getUniqueId()) == null) {
             player.sendMessage("You do not own an island to pardon players from.");
             return;
         }
 
         String bannedPlayerName = args[0];
-        OfflinePlayer bannedPlayer = Bukkit.getOfflinePlayer(bannedPlayerName);
+        profileCache.resolve(bannedPlayerName, bannedUUID -> {
+            // The island may have changed while the name was being resolved
+            Island island = getIslandByOwnerUUID(player.getUniqueId());
+            if (island == null || !player.isOnline()) return;
+
+            if (bannedUUID == null) {
+                player.sendMessage(bannedPlayerName + " could not be found.");
+                return;
+            }
 
-        if (bannedPlayer == null) {
-            player.sendMessage(bannedPlayerName + " could not be found.");
-            return;
-        }
+            if (!island.hasBanned(bannedUUID)) {
+                player.sendMessage(bannedPlayerName + " is not banned from the island.");
+                return;
+            }
 
-        if (!island.hasBanned(bannedPlayer.getUniqueId())) {
-            player.sendMessage(bannedPlayerName + " is not banned from the island.");
-            return;
-        }
+            island.unbanPlayer(bannedUUID);
+            player.sendMessage(bannedPlayerName + " has been pardoned and may re-enter the island.");
 
-        island.unbanPlayer(bannedPlayer.getUniqueId());
-        player.sendMessage(bannedPlayerName + " has been pardoned and may re-enter the island.");
-        
-        if (bannedPlayer.isOnline()) {
-            bannedPlayer.getPlayer().sendMessage("You have been pardoned and may re-enter " + island.getName() + ".");
-        }
+            Player bannedPlayer = Bukkit.getPlayer(bannedUUID);
+            if (bannedPlayer != null) {
+                bannedPlayer.sendMessage("You have been pardoned and may re-enter " + island.getName() + ".");
+            }
+        });
     }
 
     /**
@@ -945,7 +1377,7 @@ public class IslandManager {
 
         player.sendMessage("Player " + friendName + " has been kicked from the island.");
         friend.sendMessage("You have been kicked from the island by " + player.getName() + ".");
-        friend.teleport(Bukkit.getWorld(Main.spawnWorldName).getSpawnLocation());
+        friend.teleport(WorldCache.getSpawnWorld().getSpawnLocation());
     }
 
     /**
@@ -970,7 +1402,7 @@ public class IslandManager {
         resetPlayerData(player);
 
         player.sendMessage("You have left " + island.getName() + ".");
-        player.teleport(Bukkit.getWorld(Main.spawnWorldName).getSpawnLocation());
+        player.teleport(WorldCache.getSpawnWorld().getSpawnLocation());
     }
 
     /**
@@ -985,29 +1417,33 @@ public class IslandManager {
         }
 
         String newLeaderName = args[0];
-        UUID newLeaderUUID = Bukkit.getOfflinePlayer(newLeaderName).getUniqueId();
 
-        Island island = getIslandByOwnerUUID(sender.getUniqueId());
-        if (island == null) {
+        if (getIslandByOwnerUUID(sender.getUniqueId()) == null) {
             sender.sendMessage("You do not have an island to promote players in.");
             return;
         }
 
-        if (!island.hasFriend(newLeaderUUID)) {
-            sender.sendMessage("Player " + newLeaderName + " is not an island party member.");
-            return;
-        }
+        profileCache.resolve(newLeaderName, newLeaderUUID -> {
+            // The island may have changed while the name was being resolved
+            Island island = getIslandByOwnerUUID(sender.getUniqueId());
+            if (island == null || !sender.isOnline()) return;
 
-        island.setOwnerUUID(newLeaderUUID);
+            if (newLeaderUUID == null || !island.hasFriend(newLeaderUUID)) {
+                sender.sendMessage("Player " + newLeaderName + " is not an island party member.");
+                return;
+            }
+
+            island.setOwnerUUID(newLeaderUUID);
 
-        // Add the old owner to the friends list
-        island.addFriend(sender.getUniqueId());
+            // Add the old owner to the friends list
+            island.addFriend(sender.getUniqueId());
 
-        sender.sendMessage("You have promoted " + newLeaderName + " to island leader.");
+            sender.sendMessage("You have promoted " + newLeaderName + " to island leader.");
 
-        Player newLeader = Bukkit.getPlayer(newLeaderUUID);
-        if(newLeader != null)
-            newLeader.sendMessage("You have been promoted to island leader by " + sender.getName() + ".");
+            Player newLeader = Bukkit.getPlayer(newLeaderUUID);
+            if(newLeader != null)
+                newLeader.sendMessage("You have been promoted to island leader by " + sender.getName() + ".");
+        });
     }
 
     /**
@@ -1022,10 +1458,10 @@ public class IslandManager {
         }
 
         player.sendMessage("Island: " + island.getName());
-        player.sendMessage("Owner: " + Bukkit.getOfflinePlayer(island.getOwnerUUID()).getName());
+        player.sendMessage("Owner: " + profileCache.getName(island.getOwnerUUID()));
         player.sendMessage("Friends: ");
         for (IslandFriend friend : island.getFriends()) {
-            player.sendMessage("* " + Bukkit.getOfflinePlayer(friend.getUUID()).getName());
+            player.sendMessage("* " + profileCache.getName(friend.getUUID()));
         }
     }
 
@@ -1045,10 +1481,21 @@ public class IslandManager {
             return;
         }
 
-        String playerName = args[0];
-        UUID playerUUID = Bukkit.getOfflinePlayer(playerName).getUniqueId();
+        // Island names, owners and members are found without resolving a player
+        String playerName = String.join(" ", args);
+        Island found = findIsland(playerName);
+        if (found != null) {
+            showIslandInfoHelper(sender, found);
+            return;
+        }
 
-        showIslandInfoHelper(sender, playerUUID);
+        profileCache.resolve(playerName, playerUUID -> {
+            if (playerUUID == null) {
+                sender.sendMessage(playerName + " could not be found.");
+                return;
+            }
+            showIslandInfoHelper(sender, playerUUID);
+        });
     }
 
     /**
@@ -1059,44 +1506,59 @@ public class IslandManager {
     private void showIslandInfoHelper(CommandSender sender, UUID playerUUID){
         Island island = getIslandByPlayerUUID(playerUUID);
         if (island == null) {
-            sender.sendMessage(Bukkit.getOfflinePlayer(playerUUID).getName() + " does not have an island.");
+            sender.sendMessage(profileCache.getName(playerUUID) + " does not have an island.");
             return;
         }
+        showIslandInfoHelper(sender, island);
+    }
 
-        // Calculate score
-        double score = 0;
-        island.calculateScore();
-        score = island.getScore();
-        Map<String, Double> scoreBreakdown = island.getScoreBreakdown();
-
-        //sort from highest to lowest
-        scoreBreakdown = scoreBreakdown.entrySet().stream()
-            .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (e1, e2) -> e1, LinkedHashMap::new));
+    /**
+     * Helper function to show island info, including rank, score, and top 10 contributing blocks.
+     * @param sender
+     * @param island
+     */
+    private void showIslandInfoHelper(CommandSender sender, Island island){
 
+        // Score is kept up to date as blocks change, the breakdown is cached until it changes
         sender.sendMessage("Island: " + island.getName());
         sender.sendMessage("Rank: " + getRank(island) + "/" + islands.size());
-        sender.sendMessage("Score: " + String.format("%.2f", score));
-        
-        // Display top 10 blocks
-        int i = 0;
-        for (Map.Entry<String, Double> entry : scoreBreakdown.entrySet()) {
-            if(i >= 10)
-                break;
-            String key = entry.getKey();
-            Material material = Material.getMaterial(key);
-            if(material == null){
-                continue;
-            }
-            Double block_weight = Island.getBlockWeight(material);
-            String block_key = key.replace("_", " ");
-            String[] words = block_key.split(" ");
-            words = Arrays.stream(words).map(word -> word.substring(0, 1).toUpperCase() + word.substring(1).toLowerCase()).toArray(String[]::new);
-            block_key = String.join(" ", words);
+        sender.sendMessage("Score: " + String.format("%.2f", island.getScore()));
+        sender.sendMessage(island.getScoreBreakdownMessage());
+    }
 
-            sender.sendMessage("* " + block_key + ": " + String.format("%.2f", entry.getValue()) + " (" + String.format("%.2f", block_weight) + " each)");
-            i++;
+    /**
+     * Check that the player to island index matches the owners and friends of every island.
+     * If it does not, the problems are listed and the index is rebuilt.
+     * @param sender
+     */
+    public void checkMembershipIndex(CommandSender sender){
+        List<String> problems = membershipIndex.checkConsistency(islands);
+        if (problems.isEmpty()) {
+            sender.sendMessage("Island membership index is consistent (" + membershipIndex.size() + " players).");
+            return;
         }
+
+        sender.sendMessage("Island membership index has " + problems.size() + " problems:");
+        for (String problem : problems) {
+            sender.sendMessage("* " + problem);
+        }
+
+        membershipIndex.rebuild(islands.values());
+        sender.sendMessage("Island membership index rebuilt (" + membershipIndex.size() + " players).");
+    }
+
+    /**
+     * Show the state of the island score engine, to check whether scoring keeps up with the number of islands.
+     * @param sender
+     */
+    public void showScoreStats(CommandSender sender){
+        sender.sendMessage("Islands: " + islands.size());
+        sender.sendMessage("Score queue depth: " + scoreEngine.getQueueDepth());
+        sender.sendMessage("Current pass: " + scoreEngine.getCurrentPassMillis() + " ms");
+        sender.sendMessage("Last pass: " + scoreEngine.getLastPassMillis() + " ms");
+        sender.sendMessage("Passes coalesced: " + scorePassesCoalesced);
+        sender.sendMessage("Dirty chunks: " + dirtyChunks.size());
+        sender.sendMessage("Sections read: " + IslandScoreEngine.getSectionsRead() + ", uniform: " + IslandScoreEngine.getSectionsUniform() + ", skipped: " + IslandScoreEngine.getSectionsSkipped());
     }
 
     /**
@@ -1211,16 +1673,17 @@ public class IslandManager {
         }
 
         // Set the biome on each block in the island radius
-        Location islandCenter = island.getIslandCenter();
+        int centerX = island.getCenterX();
+        int centerZ = island.getCenterZ();
         int radius = island.getRadius();
-        World world = island.getIslandSpawn().getWorld();
+        World world = WorldCache.getSkyblockWorld();
 
         for (int x = -radius; x <= radius; x++) {
             for (int z = -radius; z <= radius; z++) {
                 for (int y = world.getMinHeight(); y <= world.getMaxHeight(); y++) {
-                    Location blockLocation = islandCenter.clone().add(x, y, z);
-                    if (blockLocation.getBlock().getBiome() != biome) {
-                        blockLocation.getBlock().setBiome(biome);
+                    Block block = world.getBlockAt(centerX + x, y, centerZ + z);
+                    if (block.getBiome() != biome) {
+                        block.setBiome(biome);
                     }
                 }
             }
@@ -0,0 +1,135 @@
+package dev.krutz.mc.skyblock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Maps the UUID of every island owner and friend to the index of their island.
+ * Islands keep the index up to date as owners and friends change, see Island.setMembershipIndex.
+ */
+public class IslandMembershipIndex {
+    private final Map<UUID, Integer> playerIslands = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong(); // Incremented every time a player is added or removed
+
+    /**
+     * Map a player to an island
+     * @param playerUUID
+     * @param islandIndex
+     */
+    public void add(UUID playerUUID, int islandIndex) {
+        playerIslands.put(playerUUID, islandIndex);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Remove a player from the index if they are mapped to the island
+     * @param playerUUID
+     * @param islandIndex
+     */
+    public void remove(UUID playerUUID, int islandIndex) {
+        if (playerIslands.remove(playerUUID, islandIndex)) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Get the index of the island a player belongs to
+     * @param playerUUID
+     * @return Island index, or null if the player does not belong to an island
+     */
+    public Integer get(UUID playerUUID) {
+        return playerIslands.get(playerUUID);
+    }
+
+    /**
+     * Remove every member of an island from the index
+     * @param island
+     */
+    public void unregister(Island island) {
+        remove(island.getOwnerUUID(), island.getIndex());
+        for (IslandFriend friend : island.getFriends()) {
+            remove(friend.getUUID(), island.getIndex());
+        }
+    }
+
+    /**
+     * Rebuild the index from scratch. If a player is listed on more than one island,
+     * the island they own wins over the islands they are a friend of.
+     * @param islands
+     */
+    public void rebuild(Collection<Island> islands) {
+        playerIslands.clear();
+        for (Island island : islands) {
+            for (IslandFriend friend : island.getFriends()) {
+                add(friend.getUUID(), island.getIndex());
+            }
+        }
+        for (Island island : islands) {
+            add(island.getOwnerUUID(), island.getIndex());
+        }
+    }
+
+    /**
+     * Compare the index with the owners and friends of every island
+     * @param islands All islands by index
+     * @return A description of every difference, empty if the index is consistent
+     */
+    public List<String> checkConsistency(Map<Integer, Island> islands) {
+        List<String> problems = new ArrayList<>();
+
+        // Every member must be mapped to an island they belong to
+        for (Island island : islands.values()) {
+            checkMember(islands, island.getOwnerUUID(), island, problems);
+            for (IslandFriend friend : island.getFriends()) {
+                checkMember(islands, friend.getUUID(), island, problems);
+            }
+        }
+
+        // Every mapped player must belong to the island they are mapped to
+        for (Map.Entry<UUID, Integer> entry : playerIslands.entrySet()) {
+            Island island = islands.get(entry.getValue());
+            if (island == null) {
+                problems.add(entry.getKey() + " is mapped to missing island " + entry.getValue());
+            }
+            else if (!island.hasOwner(entry.getKey()) && !island.hasFriend(entry.getKey())) {
+                problems.add(entry.getKey() + " is mapped to island " + entry.getValue() + " but is not a member");
+            }
+        }
+
+        return problems;
+    }
+
+    /**
+     * Get the version of the index, which changes every time a player is added or removed
+     * @return Version number
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Get the number of players in the index
+     * @return Number of players
+     */
+    public int size() {
+        return playerIslands.size();
+    }
+
+    private void checkMember(Map<Integer, Island> islands, UUID playerUUID, Island island, List<String> problems) {
+        Integer mapped = playerIslands.get(playerUUID);
+        if (mapped == null) {
+            problems.add(playerUUID + " is a member of island " + island.getIndex() + " but is not mapped");
+            return;
+        }
+
+        Island mappedIsland = islands.get(mapped);
+        if (mappedIsland == null || !mappedIsland.hasOwner(playerUUID) && !mappedIsland.hasFriend(playerUUID)) {
+            problems.add(playerUUID + " is a member of island " + island.getIndex() + " but is mapped to island " + mapped);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package dev.krutz.mc.skyblock;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An immutable copy of the saved data of an island, taken on the main thread so it can be
+ * serialized on another thread while the island keeps changing. The fields and names match
+ * Island, so a record is saved in the same JSON format and loads back as an Island.
+ */
+public final class IslandRecord {
+    @Expose @SerializedName("x") private final int x;
+    @Expose @SerializedName("z") private final int z;
+    @Expose @SerializedName("name") private final String name;
+    @Expose @SerializedName("index") private final int index;
+    @Expose @SerializedName("owner") private final UUID ownerUUID;
+    @Expose @SerializedName("friends") private final List<IslandFriend> friends;
+    @Expose @SerializedName("ban_list") private final List<UUID> banList;
+    @Expose @SerializedName("greeting_message") private final String enterMessage;
+    @Expose @SerializedName("farewell_message") private final String exitMessage;
+    @Expose @SerializedName("island_spawn") private final IslandLocation islandSpawn;
+    @Expose @SerializedName("island_warp") private final IslandLocation islandWarp;
+    @Expose @SerializedName("isLocked") private final boolean isLocked;
+
+    // Modification count of the island when the record was taken, not serialized
+    private final transient long modificationCount;
+
+    /**
+     * Create a record of island data. Lists must be copies that are not changed afterwards.
+     */
+    public IslandRecord(int x, int z, String name, int index, UUID ownerUUID, List<IslandFriend> friends, List<UUID> banList,
+            String enterMessage, String exitMessage, IslandLocation islandSpawn, IslandLocation islandWarp, boolean isLocked,
+            long modificationCount) {
+        this.x = x;
+        this.z = z;
+        this.name = name;
+        this.index = index;
+        this.ownerUUID = ownerUUID;
+        this.friends = friends;
+        this.banList = banList;
+        this.enterMessage = enterMessage;
+        this.exitMessage = exitMessage;
+        this.islandSpawn = islandSpawn;
+        this.islandWarp = islandWarp;
+        this.isLocked = isLocked;
+        this.modificationCount = modificationCount;
+    }
+
+    /**
+     * Create an island from this record
+     * @return Island object
+     */
+    public Island toIsland() {
+        return new Island(this);
+    }
+
+    /**
+     * Get the index of the island this record belongs to
+     * @return the island index
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getZ() {
+        return z;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public UUID getOwnerUUID() {
+        return ownerUUID;
+    }
+
+    public List<IslandFriend> getFriends() {
+        return friends;
+    }
+
+    public List<UUID> getBanList() {
+        return banList;
+    }
+
+    public String getEnterMessage() {
+        return enterMessage;
+    }
+
+    public String getExitMessage() {
+        return exitMessage;
+    }
+
+    public IslandLocation getIslandSpawn() {
+        return islandSpawn;
+    }
+
+    public IslandLocation getIslandWarp() {
+        return islandWarp;
+    }
+
+    public boolean isLocked() {
+        return isLocked;
+    }
+
+    /**
+     * Get the modification count of the island when the record was taken
+     * @return the modification count
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
+}
@@ -0,0 +1,340 @@
+package dev.krutz.mc.skyblock;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Encodes island records in a compact binary form. UUIDs are written as two longs and
+ * strings as UTF-8 with a length prefix, so a record takes a fraction of its JSON size.
+ * Records can share a table of world names, so a file of many islands only holds each world name once.
+ * Logs that records are appended to wrap each entry in a frame with its length and a CRC32, so an entry
+ * that was only partly written when the server stopped is detected when the log is read.
+ */
+public final class IslandRecordCodec {
+    // Constants that are not configurable
+    private static final int NULL_LENGTH = -1; // Length written for a null string or list, and the id of a null world name
+    private static final int MAX_FRAME_LENGTH = 1 << 20; // Longer lengths can only come from a torn write
+
+    private IslandRecordCodec() {}
+
+    /**
+     * Write an island record with the world names written in full
+     * @param out
+     * @param record
+     * @throws IOException
+     */
+    public static void write(DataOutput out, IslandRecord record) throws IOException {
+        write(out, record, null);
+    }
+
+    /**
+     * Write an island record
+     * @param out
+     * @param record
+     * @param worldNames Table the world names are added to, or null to write the names in full
+     * @throws IOException
+     */
+    public static void write(DataOutput out, IslandRecord record, WorldNames worldNames) throws IOException {
+        out.writeInt(record.getIndex());
+        out.writeInt(record.getX());
+        out.writeInt(record.getZ());
+        writeString(out, record.getName());
+        writeUUID(out, record.getOwnerUUID());
+
+        List<IslandFriend> friends = record.getFriends();
+        out.writeInt(friends == null ? NULL_LENGTH : friends.size());
+        if (friends != null) {
+            for (IslandFriend friend : friends) {
+                writeUUID(out, friend.getUUID());
+                List<String> permissions = friend.getPermissions();
+                out.writeInt(permissions.size());
+                for (String permission : permissions) {
+                    writeString(out, permission);
+                }
+            }
+        }
+
+        List<UUID> banList = record.getBanList();
+        out.writeInt(banList == null ? NULL_LENGTH : banList.size());
+        if (banList != null) {
+            for (UUID uuid : banList) {
+                writeUUID(out, uuid);
+            }
+        }
+
+        writeString(out, record.getEnterMessage());
+        writeString(out, record.getExitMessage());
+        writeLocation(out, record.getIslandSpawn(), worldNames);
+        writeLocation(out, record.getIslandWarp(), worldNames);
+        out.writeBoolean(record.isLocked());
+    }
+
+    /**
+     * Read an island record written with the world names in full
+     * @param in
+     * @return Island record with a modification count of 0
+     * @throws IOException
+     */
+    public static IslandRecord read(DataInput in) throws IOException {
+        return read(in, null);
+    }
+
+    /**
+     * Read an island record
+     * @param in
+     * @param worldNames Table the record was written with, or null if the world names were written in full
+     * @return Island record with a modification count of 0
+     * @throws IOException
+     */
+    public static IslandRecord read(DataInput in, WorldNames worldNames) throws IOException {
+        int index = in.readInt();
+        int x = in.readInt();
+        int z = in.readInt();
+        String name = readString(in);
+        UUID ownerUUID = readUUID(in);
+
+        List<IslandFriend> friends = null;
+        int friendCount = in.readInt();
+        if (friendCount != NULL_LENGTH) {
+            friends = new ArrayList<>(friendCount);
+            for (int i = 0; i < friendCount; i++) {
+                UUID friendUUID = readUUID(in);
+                int permissionCount = in.readInt();
+                ArrayList<String> permissions = new ArrayList<>(permissionCount);
+                for (int j = 0; j < permissionCount; j++) {
+                    permissions.add(readString(in));
+                }
+                friends.add(new IslandFriend(friendUUID, permissions));
+            }
+        }
+
+        List<UUID> banList = null;
+        int banCount = in.readInt();
+        if (banCount != NULL_LENGTH) {
+            banList = new ArrayList<>(banCount);
+            for (int i = 0; i < banCount; i++) {
+                banList.add(readUUID(in));
+            }
+        }
+
+        String enterMessage = readString(in);
+        String exitMessage = readString(in);
+        IslandLocation islandSpawn = readLocation(in, worldNames);
+        IslandLocation islandWarp = readLocation(in, worldNames);
+        boolean isLocked = in.readBoolean();
+        return new IslandRecord(x, z, name, index, ownerUUID, friends, banList,
+            enterMessage, exitMessage, islandSpawn, islandWarp, isLocked, 0);
+    }
+
+    /**
+     * Write the last computed score of an island
+     * @param out
+     * @param record
+     * @throws IOException
+     */
+    public static void writeScore(DataOutput out, IslandScoreRecord record) throws IOException {
+        out.writeInt(record.getIndex());
+        out.writeDouble(record.getScore());
+        out.writeLong(record.getScoredAt());
+        Map<String, Integer> blockCounts = record.getBlockCounts();
+        out.writeInt(blockCounts.size());
+        for (Map.Entry<String, Integer> entry : blockCounts.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    /**
+     * Read a score written by writeScore
+     * @param in
+     * @return Score record
+     * @throws IOException
+     */
+    public static IslandScoreRecord readScore(DataInput in) throws IOException {
+        int index = in.readInt();
+        double score = in.readDouble();
+        long scoredAt = in.readLong();
+        int blockTypes = in.readInt();
+        if (blockTypes < 0) {
+            throw new IOException("Invalid block type count " + blockTypes);
+        }
+        Map<String, Integer> blockCounts = new LinkedHashMap<>();
+        for (int i = 0; i < blockTypes; i++) {
+            blockCounts.put(readString(in), in.readInt());
+        }
+        return new IslandScoreRecord(index, score, scoredAt, blockCounts);
+    }
+
+    /**
+     * Write a log entry: its length, a CRC32 of the payload and the payload
+     * @param out
+     * @param payload
+     * @throws IOException
+     */
+    public static void writeFrame(DataOutput out, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        out.writeInt(payload.length);
+        out.writeInt((int) crc.getValue());
+        out.write(payload);
+    }
+
+    /**
+     * Read a log entry written by writeFrame
+     * @param in
+     * @return Payload of the entry
+     * @throws java.io.EOFException if the log ends before the entry is complete
+     * @throws IOException if the entry is corrupt
+     */
+    public static byte[] readFrame(DataInput in) throws IOException {
+        int length = in.readInt();
+        int checksum = in.readInt();
+        if (length <= 0 || length > MAX_FRAME_LENGTH) {
+            throw new IOException("Invalid entry length " + length);
+        }
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Checksum mismatch");
+        }
+        return payload;
+    }
+
+    /**
+     * Write a string that may be null
+     * @param out
+     * @param value
+     * @throws IOException
+     */
+    public static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read a string written by writeString
+     * @param in
+     * @return String, or null if null was written
+     * @throws IOException
+     */
+    public static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    ////////////////////////////////////////////
+    /// Helper methods
+    ////////////////////////////////////////////
+
+    private static void writeUUID(DataOutput out, UUID uuid) throws IOException {
+        out.writeBoolean(uuid != null);
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUUID(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void writeLocation(DataOutput out, IslandLocation location, WorldNames worldNames) throws IOException {
+        out.writeBoolean(location != null);
+        if (location != null) {
+            if (worldNames != null) {
+                out.writeInt(worldNames.intern(location.getWorldName()));
+            } else {
+                writeString(out, location.getWorldName());
+            }
+            out.writeDouble(location.getX());
+            out.writeDouble(location.getY());
+            out.writeDouble(location.getZ());
+            out.writeFloat(location.getYaw());
+            out.writeFloat(location.getPitch());
+        }
+    }
+
+    private static IslandLocation readLocation(DataInput in, WorldNames worldNames) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        String world = worldNames != null ? worldNames.get(in.readInt()) : readString(in);
+        return new IslandLocation(world, in.readDouble(), in.readDouble(), in.readDouble(), in.readFloat(), in.readFloat());
+    }
+
+    /**
+     * A table of world names, each stored once and referred to by its position.
+     * Names are only ever added, so records encoded with the table stay valid.
+     */
+    public static final class WorldNames {
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        /**
+         * Get the id of a world name, adding it to the table if it is new
+         * @param name
+         * @return Id of the name, or -1 for a null name
+         */
+        public int intern(String name) {
+            if (name == null) {
+                return NULL_LENGTH;
+            }
+            return ids.computeIfAbsent(name, key -> {
+                names.add(key);
+                return names.size() - 1;
+            });
+        }
+
+        /**
+         * Get a world name by id
+         * @param id
+         * @return World name, or null for an id of -1
+         * @throws IOException if there is no name with the id
+         */
+        public String get(int id) throws IOException {
+            if (id == NULL_LENGTH) {
+                return null;
+            }
+            if (id < 0 || id >= names.size()) {
+                throw new IOException("Unknown world id " + id);
+            }
+            return names.get(id);
+        }
+
+        /**
+         * Get every name in the table, in order of their ids
+         * @return World names
+         */
+        public List<String> getNames() {
+            return names;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package dev.krutz.mc.skyblock;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * An immutable snapshot of all islands, sorted by index. A new snapshot is published every time
+ * an island is created, removed or restarted, so readers can iterate with get(i) and size()
+ * without copying or locking. The version tells caches when the snapshot has changed.
+ */
+public final class IslandRegistry {
+    private final Island[] islands;
+    private final long version;
+
+    /**
+     * Create a snapshot of a collection of islands
+     * @param islands
+     * @param version
+     */
+    public IslandRegistry(Collection<Island> islands, long version) {
+        this.islands = islands.toArray(new Island[0]);
+        Arrays.sort(this.islands, Comparator.comparingInt(Island::getIndex));
+        this.version = version;
+    }
+
+    /**
+     * Get the number of islands
+     * @return Number of islands
+     */
+    public int size() {
+        return islands.length;
+    }
+
+    /**
+     * Get the island at a position in the snapshot
+     * @param position Between 0 and size() - 1
+     * @return Island object
+     */
+    public Island get(int position) {
+        return islands[position];
+    }
+
+    /**
+     * Get the version of this snapshot, higher versions are newer
+     * @return Snapshot version
+     */
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,77 @@
+package dev.krutz.mc.skyblock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Storage for island data and the last computed island scores.
+ * Islands are loaded once on startup. After that, only the records of modified islands are saved,
+ * on the I/O thread of IslandManager. Implementations are not used from more than one thread at a time.
+ */
+public interface IslandRepository {
+
+    /**
+     * Load every island
+     * @return Loaded islands
+     * @throws IOException
+     */
+    List<Island> loadIslands() throws IOException;
+
+    /**
+     * Load the last computed score of every island that has one
+     * @return Score records
+     * @throws IOException
+     */
+    List<IslandScoreRecord> loadScores() throws IOException;
+
+    /**
+     * Save island records, replacing the stored data of those islands
+     * @param records
+     * @throws IOException if any record could not be saved
+     */
+    void saveIslands(List<IslandRecord> records) throws IOException;
+
+    /**
+     * Delete the stored data of islands
+     * @param indexes
+     * @throws IOException if any island could not be deleted
+     */
+    void deleteIslands(List<Integer> indexes) throws IOException;
+
+    /**
+     * Save the score records of all scanned islands. Scores of islands that are not listed are removed.
+     * @param records
+     * @throws IOException
+     */
+    void saveScores(List<IslandScoreRecord> records) throws IOException;
+
+    /**
+     * Check if the repository holds any islands
+     * @return True if no islands are stored
+     * @throws IOException
+     */
+    boolean isEmpty() throws IOException;
+
+    /**
+     * Release the resources of the repository
+     */
+    void close();
+
+    /**
+     * Copy every island and score from one repository to another
+     * @param from
+     * @param to
+     * @return Number of islands copied
+     * @throws IOException
+     */
+    static int copy(IslandRepository from, IslandRepository to) throws IOException {
+        List<IslandRecord> records = new ArrayList<>();
+        for (Island island : from.loadIslands()) {
+            records.add(island.createRecord());
+        }
+        to.saveIslands(records);
+        to.saveScores(from.loadScores());
+        return records.size();
+    }
+}
@@ -0,0 +1,640 @@
+package dev.krutz.mc.skyblock;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Scores islands without touching the live world off the main thread.
+ * Chunk snapshots are captured on the main thread in small batches every tick,
+ * then the snapshots of each island are scanned in parallel by fork-join workers.
+ * Scans read blocks through a BlockSource, so they can also run against an in-memory world.
+ * Finished results are handed back and applied to the island on the main thread.
+ * Live block changes are tracked by IslandScoreListener, a scan only reconciles the running score.
+ * Block changes in chunks that were captured before the scan finished are added to the scan result,
+ * so a scan is never thrown away because the island kept changing while it ran.
+ * Capturing is limited to a time budget per tick, islands with online members are captured first,
+ * and an island that is already queued or being scanned is not queued again.
+ */
+public class IslandScoreEngine {
+    // Configurable values
+    private static final long MILLIS_PER_TICK = 2; // Time the main thread may spend capturing snapshots each tick
+    private static final int MINIMUM_Y = -64;
+    private static final int MAXIMUM_Y = 320;
+
+    // Constants that are not configurable
+    private static final int BLOCKS_PER_CHUNK = 16;
+    private static final int BLOCKS_PER_SECTION = BLOCKS_PER_CHUNK * BLOCKS_PER_CHUNK * BLOCKS_PER_CHUNK;
+    private static final int[] SECTION_PROBES = { 0xFFF, 0x00F, 0x0F0, 0xF00, 0x0FF, 0xF0F, 0xFF0, 0x888 }; // Corners and center, as y << 8 | z << 4 | x
+
+    // Scan counters shared by every scan
+    private static final LongAdder SECTIONS_SKIPPED = new LongAdder();
+    private static final LongAdder SECTIONS_READ = new LongAdder();
+    private static final LongAdder SECTIONS_UNIFORM = new LongAdder();
+
+    // Instance variables
+    private final JavaPlugin plugin;
+    private final Consumer<Island> onScored;
+    private final ForkJoinPool scanPool;
+    private final ArrayDeque<PendingScan> priorityCapturing = new ArrayDeque<>(); // Islands with online members
+    private final ArrayDeque<PendingScan> capturing = new ArrayDeque<>();
+    private final List<PendingScan> awaitingChunks = new ArrayList<>();
+    private final Queue<PendingScan> finished = new ConcurrentLinkedQueue<>();
+    private final Map<Integer, PendingScan> scheduled = new HashMap<>(); // Scans of islands queued or being scanned, by island index
+
+    private BukkitTask taskCapture;
+    private long passStartNanos = 0;
+    private long lastPassNanos = 0;
+
+    /**
+     * Create a new score engine. Call start() to begin capturing snapshots.
+     * @param plugin - JavaPlugin instance (usually the main class of your plugin)
+     * @param onScored - Called on the main thread after an island's score has been updated
+     */
+    public IslandScoreEngine(JavaPlugin plugin, Consumer<Island> onScored) {
+        this.plugin = plugin;
+        this.onScored = onScored;
+        this.scanPool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Start the main thread task that captures snapshots and applies finished scans.
+     */
+    public void start() {
+        if (taskCapture != null) {
+            return;
+        }
+
+        taskCapture = new BukkitRunnable() {
+            @Override
+            public void run() {
+                tick();
+            }
+        }.runTaskTimer(plugin, 1, 1);
+    }
+
+    /**
+     * Stop capturing snapshots and shut down the scan workers. Scans in progress are dropped.
+     */
+    public void shutdown() {
+        if (taskCapture != null) {
+            taskCapture.cancel();
+            taskCapture = null;
+        }
+
+        scanPool.shutdownNow();
+        priorityCapturing.clear();
+        capturing.clear();
+        awaitingChunks.clear();
+        finished.clear();
+        scheduled.clear();
+    }
+
+    /**
+     * Queue an island to be scored. Does nothing if the island is already queued or being scanned.
+     * Must be called on the main thread.
+     * @param island
+     */
+    public void queue(Island island) {
+        World world = WorldCache.getSkyblockWorld();
+        if (island == null || world == null) {
+            return;
+        }
+
+        if (scheduled.isEmpty()) {
+            passStartNanos = System.nanoTime();
+        }
+        if (scheduled.containsKey(island.getIndex())) {
+            return;
+        }
+
+        PendingScan scan = new PendingScan(island, world, island.getScoreChunkKeys());
+        scheduled.put(island.getIndex(), scan);
+        if (island.hasOnlineMember()) {
+            priorityCapturing.add(scan);
+        }
+        else {
+            capturing.add(scan);
+        }
+    }
+
+    /**
+     * Drop the queued or running scan of an island, so the island can be queued again right away.
+     * Called when the blocks of an island are replaced, a scan of the old blocks must not become its score.
+     * Must be called on the main thread.
+     * @param island
+     */
+    public void cancel(Island island) {
+        PendingScan scan = scheduled.get(island.getIndex());
+        if (scan == null) {
+            return;
+        }
+
+        scan.cancelled = true;
+        priorityCapturing.remove(scan);
+        capturing.remove(scan);
+        awaitingChunks.remove(scan);
+        complete(scan);
+    }
+
+    /**
+     * Add a block change to the running scan of an island. Changes in chunks that the scan had already
+     * captured are missing from its snapshots, so they are added to the result when the scan is applied.
+     * Must be called on the main thread.
+     * @param island
+     * @param chunkX
+     * @param chunkZ
+     * @param oldType Block type before the change
+     * @param newType Block type after the change
+     * @param changedAtTick Server tick the change happened in
+     */
+    public void recordBlockChange(Island island, int chunkX, int chunkZ, Material oldType, Material newType, int changedAtTick) {
+        PendingScan scan = scheduled.get(island.getIndex());
+        if (scan != null && scan.island == island) {
+            scan.recordChange(SkyblockUtil.chunkKey(chunkX, chunkZ), oldType, newType, changedAtTick);
+        }
+    }
+
+    /**
+     * Check if any island is queued or being scanned
+     * @return True if the engine has work in progress
+     */
+    public boolean isBusy() {
+        return !scheduled.isEmpty();
+    }
+
+    /**
+     * Get the number of islands queued or being scanned
+     * @return Queue depth
+     */
+    public int getQueueDepth() {
+        return scheduled.size();
+    }
+
+    /**
+     * Get how long the last completed pass took, from the first island queued until the queue drained
+     * @return Duration in milliseconds
+     */
+    public long getLastPassMillis() {
+        return lastPassNanos / 1_000_000;
+    }
+
+    /**
+     * Get how long the current pass has been running
+     * @return Duration in milliseconds, or 0 if no pass is running
+     */
+    public long getCurrentPassMillis() {
+        return isBusy() ? (System.nanoTime() - passStartNanos) / 1_000_000 : 0;
+    }
+
+    /**
+     * Runs every tick on the main thread. Applies finished scans, then captures the next batch of snapshots.
+     */
+    private void tick() {
+        // Apply finished scans
+        PendingScan done;
+        while ((done = finished.poll()) != null) {
+            if (done.cancelled) {
+                continue;
+            }
+            complete(done);
+
+            if (done.failed) {
+                continue;
+            }
+
+            // The snapshots miss the changes made after their chunk was captured, add them to the counts
+            int[] counts = done.result.blockCounts;
+            if (done.changes != null) {
+                for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+                    counts[ordinal] += done.changes[ordinal];
+                }
+                counts[Material.AIR.ordinal()] = 0;
+            }
+
+            done.island.setScore(score(counts), counts);
+            onScored.accept(done.island);
+        }
+
+        // Capture snapshots until the tick budget is spent, at least one chunk is always requested
+        long deadline = System.nanoTime() + MILLIS_PER_TICK * 1_000_000;
+        do {
+            ArrayDeque<PendingScan> queue = priorityCapturing.isEmpty() ? capturing : priorityCapturing;
+            PendingScan scan = queue.peek();
+            if (scan == null) {
+                break;
+            }
+
+            scan.captureNext(1);
+            if (scan.allRequested()) {
+                queue.poll();
+                awaitingChunks.add(scan);
+            }
+        } while (System.nanoTime() < deadline);
+
+        // Submit islands whose snapshots are all captured
+        Iterator<PendingScan> iterator = awaitingChunks.iterator();
+        while (iterator.hasNext()) {
+            PendingScan scan = iterator.next();
+            if (scan.failed) {
+                iterator.remove();
+                complete(scan);
+                continue;
+            }
+
+            if (!scan.allCaptured()) {
+                continue;
+            }
+
+            iterator.remove();
+            BlockSource source = snapshotSource(scan.chunkKeys, scan.snapshots);
+            ChunkScanTask task = new ChunkScanTask(source, scan.chunkKeys, 0, scan.chunkKeys.length);
+            scanPool.execute(() -> {
+                try {
+                    scan.result = task.invoke();
+                    countSections(scan.result);
+                    finished.add(scan);
+                } catch (RuntimeException e) {
+                    plugin.getLogger().warning("Failed to score island " + scan.island.getIndex() + ": " + e.getMessage());
+                    scan.failed = true;
+                    finished.add(scan);
+                }
+            });
+        }
+    }
+
+    /**
+     * Remove a finished or failed scan from the scheduled islands and end the pass once nothing is left
+     * @param scan
+     */
+    private void complete(PendingScan scan) {
+        scheduled.remove(scan.island.getIndex(), scan);
+        if (scheduled.isEmpty()) {
+            lastPassNanos = System.nanoTime() - passStartNanos;
+        }
+    }
+
+    /**
+     * Scan a set of chunks in parallel and return the combined score.
+     * Safe to call from any thread as long as the source is, chunk snapshots are immutable copies of the world.
+     * @param source
+     * @param chunkKeys Chunks to scan, see SkyblockUtil.chunkKey
+     * @return Score and block counts of the scanned chunks
+     */
+    public static ScanResult scan(BlockSource source, long[] chunkKeys) {
+        ScanResult result = ForkJoinPool.commonPool().invoke(new ChunkScanTask(source, chunkKeys, 0, chunkKeys.length));
+        countSections(result);
+        return result;
+    }
+
+    /**
+     * Create a block source from snapshots of the chunks in the skyblock world
+     * @param chunkKeys
+     * @param snapshots Snapshot of each chunk, in the same order as chunkKeys
+     * @return Block source reading the snapshots
+     */
+    public static BlockSource snapshotSource(long[] chunkKeys, ChunkSnapshot[] snapshots) {
+        return new SnapshotBlockSource(chunkKeys, snapshots, MINIMUM_Y, MAXIMUM_Y);
+    }
+
+    /**
+     * Add the section counts of a finished scan to the shared counters
+     * @param result
+     */
+    private static void countSections(ScanResult result) {
+        SECTIONS_SKIPPED.add(result.sectionsSkipped);
+        SECTIONS_READ.add(result.sectionsRead);
+        SECTIONS_UNIFORM.add(result.sectionsUniform);
+    }
+
+    /**
+     * Capture a snapshot of a loaded chunk. Must be called on the main thread.
+     * @param chunk
+     * @return Snapshot of the chunk's blocks
+     */
+    public static ChunkSnapshot captureSnapshot(Chunk chunk) {
+        return chunk.getChunkSnapshot(false, false, false);
+    }
+
+    /**
+     * Count the blocks of a single chunk.
+     * @param source
+     * @param chunkX
+     * @param chunkZ
+     * @return Score and block counts of the chunk
+     */
+    private static ScanResult scanChunk(BlockSource source, int chunkX, int chunkZ) {
+        ScanResult result = new ScanResult();
+        int[] counts = result.blockCounts;
+        int sections = (source.getMaxHeight() - source.getMinHeight()) / BLOCKS_PER_CHUNK;
+
+        // Columns are bounded by the highest section that holds any blocks
+        int topSection = sections - 1;
+        while (topSection >= 0 && source.isSectionEmpty(chunkX, chunkZ, topSection)) {
+            topSection--;
+        }
+        result.sectionsSkipped += sections - 1 - topSection;
+
+        for (int section = 0; section <= topSection; section++) {
+            // Skip sections that are entirely air
+            if (source.isSectionEmpty(chunkX, chunkZ, section)) {
+                result.sectionsSkipped++;
+                continue;
+            }
+            result.sectionsRead++;
+
+            // Sources that know a section holds a single block type count it without reading it
+            Material uniformType = source.getUniformSectionType(chunkX, chunkZ, section);
+            if (uniformType != null) {
+                counts[uniformType.ordinal()] += BLOCKS_PER_SECTION;
+                result.sectionsUniform++;
+                continue;
+            }
+
+            int sectionY = source.getMinHeight() + section * BLOCKS_PER_CHUNK;
+            if (scanSection(source, chunkX * BLOCKS_PER_CHUNK, sectionY, chunkZ * BLOCKS_PER_CHUNK, counts)) {
+                result.sectionsUniform++;
+            }
+        }
+
+        // Air is never scored, it is counted above only to keep the inner loop free of branches
+        counts[Material.AIR.ordinal()] = 0;
+
+        result.score = score(counts);
+        return result;
+    }
+
+    /**
+     * Count the blocks of a 16x16x16 section. Chunk snapshots cannot tell if a section holds a single
+     * block type, so the corners and center are probed first. A section where a probe differs is counted
+     * block by block, any other section is compared against its first block until one differs.
+     * @param source
+     * @param sectionX Lowest x coordinate of the section
+     * @param sectionY Lowest y coordinate of the section
+     * @param sectionZ Lowest z coordinate of the section
+     * @param counts Block counts indexed by Material.ordinal()
+     * @return True if every block in the section has the same type
+     */
+    private static boolean scanSection(BlockSource source, int sectionX, int sectionY, int sectionZ, int[] counts) {
+        Material firstType = source.getBlockType(sectionX, sectionY, sectionZ);
+        for (int probe : SECTION_PROBES) {
+            if (source.getBlockType(sectionX + (probe & 15), sectionY + (probe >> 8), sectionZ + ((probe >> 4) & 15)) != firstType) {
+                countSection(source, sectionX, sectionY, sectionZ, 0, counts);
+                return false;
+            }
+        }
+
+        for (int block = 1; block < BLOCKS_PER_SECTION; block++) {
+            if (source.getBlockType(sectionX + (block & 15), sectionY + (block >> 8), sectionZ + ((block >> 4) & 15)) != firstType) {
+                counts[firstType.ordinal()] += block;
+                countSection(source, sectionX, sectionY, sectionZ, block, counts);
+                return false;
+            }
+        }
+        counts[firstType.ordinal()] += BLOCKS_PER_SECTION;
+        return true;
+    }
+
+    /**
+     * Count the blocks of a section one by one, in the order they are stored in a snapshot
+     * @param source
+     * @param sectionX Lowest x coordinate of the section
+     * @param sectionY Lowest y coordinate of the section
+     * @param sectionZ Lowest z coordinate of the section
+     * @param fromBlock First block to count, as y << 8 | z << 4 | x
+     * @param counts Block counts indexed by Material.ordinal()
+     */
+    private static void countSection(BlockSource source, int sectionX, int sectionY, int sectionZ, int fromBlock, int[] counts) {
+        for (int block = fromBlock; block < BLOCKS_PER_SECTION; block++) {
+            counts[source.getBlockType(sectionX + (block & 15), sectionY + (block >> 8), sectionZ + ((block >> 4) & 15)).ordinal()]++;
+        }
+    }
+
+    /**
+     * Calculate the score of a block count histogram
+     * @param counts Block counts indexed by Material.ordinal()
+     * @return Score of the blocks
+     */
+    public static double score(int[] counts) {
+        double[] weights = Island.getBlockWeights();
+        double score = 0;
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+            if (counts[ordinal] != 0) {
+                score += counts[ordinal] * weights[ordinal];
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Get the total number of chunk sections skipped because they were empty
+     * @return Number of skipped sections
+     */
+    public static long getSectionsSkipped() {
+        return SECTIONS_SKIPPED.sum();
+    }
+
+    /**
+     * Get the total number of chunk sections that were read block by block
+     * @return Number of read sections
+     */
+    public static long getSectionsRead() {
+        return SECTIONS_READ.sum();
+    }
+
+    /**
+     * Get the total number of read chunk sections that held a single block type
+     * @return Number of uniform sections
+     */
+    public static long getSectionsUniform() {
+        return SECTIONS_UNIFORM.sum();
+    }
+
+    /**
+     * The score and per block type counts produced by a scan.
+     */
+    public static class ScanResult {
+        private double score = 0;
+        private final int[] blockCounts = new int[Island.getMaterialCount()];
+        private int sectionsSkipped = 0;
+        private int sectionsRead = 0;
+        private int sectionsUniform = 0;
+
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * Get the block counts, indexed by Material.ordinal()
+         * @return block count histogram
+         */
+        public int[] getBlockCounts() {
+            return blockCounts;
+        }
+
+        public int getSectionsSkipped() {
+            return sectionsSkipped;
+        }
+
+        public int getSectionsRead() {
+            return sectionsRead;
+        }
+
+        public int getSectionsUniform() {
+            return sectionsUniform;
+        }
+
+        private void add(ScanResult other) {
+            score += other.score;
+            sectionsSkipped += other.sectionsSkipped;
+            sectionsRead += other.sectionsRead;
+            sectionsUniform += other.sectionsUniform;
+            for (int ordinal = 0; ordinal < blockCounts.length; ordinal++) {
+                blockCounts[ordinal] += other.blockCounts[ordinal];
+            }
+        }
+    }
+
+    /**
+     * Splits a range of chunks in half until a single chunk is left, then scans it.
+     */
+    private static class ChunkScanTask extends RecursiveTask<ScanResult> {
+        private final BlockSource source;
+        private final long[] chunkKeys;
+        private final int from;
+        private final int to;
+
+        ChunkScanTask(BlockSource source, long[] chunkKeys, int from, int to) {
+            this.source = source;
+            this.chunkKeys = chunkKeys;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ScanResult compute() {
+            if (to - from <= 1) {
+                return from < to ? scanChunk(source, SkyblockUtil.chunkKeyX(chunkKeys[from]), SkyblockUtil.chunkKeyZ(chunkKeys[from])) : new ScanResult();
+            }
+
+            int middle = (from + to) >>> 1;
+            ChunkScanTask left = new ChunkScanTask(source, chunkKeys, from, middle);
+            left.fork();
+            ScanResult result = new ChunkScanTask(source, chunkKeys, middle, to).compute();
+            result.add(left.join());
+            return result;
+        }
+    }
+
+    /**
+     * An island whose chunk snapshots are being captured on the main thread.
+     */
+    private static class PendingScan {
+        private final Island island;
+        private final World world;
+        private final long[] chunkKeys;
+        private final ChunkSnapshot[] snapshots;
+        private final int[] captureTicks; // Server tick each snapshot was captured in
+        private int[] changes; // Block changes since their chunk was captured, indexed by Material.ordinal(), main thread only
+        private int nextChunk = 0;
+        private int captured = 0;
+        private volatile boolean failed = false;
+        private boolean cancelled = false;
+        private ScanResult result;
+
+        PendingScan(Island island, World world, long[] chunkKeys) {
+            this.island = island;
+            this.world = world;
+            this.chunkKeys = chunkKeys;
+            this.snapshots = new ChunkSnapshot[chunkKeys.length];
+            this.captureTicks = new int[chunkKeys.length];
+        }
+
+        /**
+         * Record a block change if the snapshot of its chunk was captured before the change.
+         * Snapshots are captured by a scheduled task, which runs before the blocks change in a tick.
+         * @param chunkKey
+         * @param oldType
+         * @param newType
+         * @param changedAtTick
+         */
+        void recordChange(long chunkKey, Material oldType, Material newType, int changedAtTick) {
+            for (int i = 0; i < chunkKeys.length; i++) {
+                if (chunkKeys[i] != chunkKey) {
+                    continue;
+                }
+                if (snapshots[i] != null && captureTicks[i] <= changedAtTick) {
+                    if (changes == null) {
+                        changes = new int[Island.getMaterialCount()];
+                    }
+                    changes[oldType.ordinal()]--;
+                    changes[newType.ordinal()]++;
+                }
+                return;
+            }
+        }
+
+        /**
+         * Capture up to budget snapshots. Unloaded chunks are loaded asynchronously
+         * and captured once the load completes on the main thread.
+         * @param budget
+         * @return Number of snapshots requested
+         */
+        int captureNext(int budget) {
+            int requested = 0;
+            while (requested < budget && nextChunk < chunkKeys.length) {
+                int index = nextChunk++;
+                int chunkX = SkyblockUtil.chunkKeyX(chunkKeys[index]);
+                int chunkZ = SkyblockUtil.chunkKeyZ(chunkKeys[index]);
+
+                if (world.isChunkLoaded(chunkX, chunkZ)) {
+                    snapshots[index] = captureSnapshot(world.getChunkAt(chunkX, chunkZ));
+                    captureTicks[index] = Bukkit.getCurrentTick();
+                    captured++;
+                }
+                else {
+                    world.getChunkAtAsync(chunkX, chunkZ).whenComplete((chunk, error) -> {
+                        if (cancelled) {
+                            return;
+                        }
+                        if (chunk == null) {
+                            failed = true;
+                            return;
+                        }
+                        snapshots[index] = captureSnapshot(chunk);
+                        captureTicks[index] = Bukkit.getCurrentTick();
+                        captured++;
+                    });
+                }
+                requested++;
+            }
+            return requested;
+        }
+
+        boolean allRequested() {
+            return nextChunk >= chunkKeys.length;
+        }
+
+        boolean allCaptured() {
+            return captured >= chunkKeys.length;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package dev.krutz.mc.skyblock;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockMultiPlaceEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.player.PlayerBucketFillEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/*
+ * A listener singleton class that keeps island scores up to date as blocks change.
+ * The block type before the change is recorded when the event fires, and the block
+ * type after the change is read once the change has been applied to the world.
+ */
+public class IslandScoreListener implements Listener {
+    private static IslandScoreListener instance;
+
+    // Configurable values
+    private static final long PISTON_SETTLE_TICKS = 3; // Moving blocks are MOVING_PISTON until the piston finishes
+
+    // Instance variables
+    private final JavaPlugin plugin;
+    private final IslandManager islandManager;
+    private final PendingChanges pendingChanges = new PendingChanges();
+
+    /**
+     * Get the instance of the IslandScoreListener singleton.
+     * @return The IslandScoreListener instance
+     */
+    public static synchronized IslandScoreListener getInstance(JavaPlugin plugin, IslandManager islandManager) {
+        // Create a new instance if it doesn't exist
+        if (instance == null) {
+            instance = new IslandScoreListener(plugin, islandManager);
+        }
+        return instance;
+    }
+
+    /**
+     * Private constructor for the IslandScoreListener singleton.
+     */
+    private IslandScoreListener(JavaPlugin plugin, IslandManager islandManager) {
+        this.plugin = plugin;
+        this.islandManager = islandManager;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        // The block has already been placed, the old type comes from the replaced state
+        if (event instanceof BlockMultiPlaceEvent multiPlaceEvent) {
+            for (BlockState replaced : multiPlaceEvent.getReplacedBlockStates()) {
+                pendingChanges.record(replaced.getBlock(), replaced.getType());
+            }
+            return;
+        }
+
+        pendingChanges.record(event.getBlockPlaced(), event.getBlockReplacedState().getType());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        pendingChanges.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        pendingChanges.record(event.getBlock());
+        for (Block block : event.blockList()) {
+            pendingChanges.record(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            pendingChanges.record(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        pendingChanges.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLeavesDecay(LeavesDecayEvent event) {
+        pendingChanges.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFade(BlockFadeEvent event) {
+        pendingChanges.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockGrow(BlockGrowEvent event) {
+        pendingChanges.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        // Includes cobblestone, stone and obsidian made by lava meeting water
+        pendingChanges.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockSpread(BlockSpreadEvent event) {
+        pendingChanges.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onStructureGrow(StructureGrowEvent event) {
+        pendingChanges.record(event.getLocation().getBlock());
+        for (BlockState state : event.getBlocks()) {
+            pendingChanges.record(state.getBlock());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFromTo(BlockFromToEvent event) {
+        // Fluid flowing into a block, or a dragon egg teleporting
+        pendingChanges.record(event.getBlock());
+        pendingChanges.record(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketEmpty(PlayerBucketEmptyEvent event) {
+        pendingChanges.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketFill(PlayerBucketFillEvent event) {
+        pendingChanges.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        // Falling blocks, endermen, trampled farmland, etc.
+        pendingChanges.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        recordPistonChanges(event.getBlock(), event.getDirection(), event.getBlocks());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        recordPistonChanges(event.getBlock(), event.getDirection(), event.getBlocks());
+    }
+
+    ////////////////////////////////////////////
+    /// Helper methods
+    ////////////////////////////////////////////
+
+    /**
+     * Record every block a piston can touch. The piston head and each moved block are
+     * recorded along with their neighbors on the piston axis, blocks that end up unchanged cost nothing.
+     * @param piston
+     * @param direction
+     * @param movedBlocks
+     */
+    private void recordPistonChanges(Block piston, BlockFace direction, Iterable<Block> movedBlocks) {
+        BlockFace opposite = direction.getOppositeFace();
+        pendingChanges.record(piston.getRelative(direction), PISTON_SETTLE_TICKS);
+        pendingChanges.record(piston.getRelative(direction, 2), PISTON_SETTLE_TICKS);
+        for (Block block : movedBlocks) {
+            pendingChanges.record(block, PISTON_SETTLE_TICKS);
+            pendingChanges.record(block.getRelative(direction), PISTON_SETTLE_TICKS);
+            pendingChanges.record(block.getRelative(opposite), PISTON_SETTLE_TICKS);
+        }
+    }
+
+    /**
+     * Block positions in the skyblock world whose type before a change has been recorded,
+     * waiting for the change to be applied to the world. Each position is recorded once, so a
+     * block that changes in several ways before it is read is only counted once.
+     */
+    private class PendingChanges {
+        private final Map<Long, PendingChange> changes = new LinkedHashMap<>();
+        private boolean flushScheduled = false;
+
+        /**
+         * Record the current type of a block before it changes, read one tick later
+         * @param block
+         */
+        void record(Block block) {
+            record(block, block.getType(), 1);
+        }
+
+        /**
+         * Record the current type of a block before it changes
+         * @param block
+         * @param delay Ticks until the change has been applied to the world
+         */
+        void record(Block block, long delay) {
+            record(block, block.getType(), delay);
+        }
+
+        /**
+         * Record the type of a block before it changed, read one tick later
+         * @param block
+         * @param oldType
+         */
+        void record(Block block, Material oldType) {
+            record(block, oldType, 1);
+        }
+
+        /**
+         * Record the type of a block before it changed. The first recorded type of a position wins,
+         * and the position is read after the longest delay it was recorded with.
+         * @param block
+         * @param oldType
+         * @param delay Ticks until the change has been applied to the world
+         */
+        void record(Block block, Material oldType, long delay) {
+            if (!WorldCache.isSkyblockWorld(block.getWorld())) {
+                return;
+            }
+
+            int tick = Bukkit.getCurrentTick();
+            long blockKey = SkyblockUtil.blockKey(block.getX(), block.getY(), block.getZ());
+            PendingChange change = changes.get(blockKey);
+            if (change == null) {
+                changes.put(blockKey, new PendingChange(oldType, tick, tick + delay));
+            }
+            else {
+                change.readAtTick = Math.max(change.readAtTick, tick + delay);
+            }
+
+            if (!flushScheduled) {
+                flushScheduled = true;
+                Bukkit.getScheduler().runTaskLater(plugin, this::flush, delay);
+            }
+        }
+
+        /**
+         * Read the new type of every recorded block that is due and apply the difference to the island scores.
+         * Blocks that are not due yet are read by a later flush.
+         */
+        void flush() {
+            flushScheduled = false;
+
+            World world = WorldCache.getSkyblockWorld();
+            if (world == null) {
+                changes.clear();
+                return;
+            }
+
+            int tick = Bukkit.getCurrentTick();
+            long nextReadAtTick = Long.MAX_VALUE;
+            Iterator<Map.Entry<Long, PendingChange>> iterator = changes.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, PendingChange> entry = iterator.next();
+                PendingChange change = entry.getValue();
+                if (change.readAtTick > tick) {
+                    nextReadAtTick = Math.min(nextReadAtTick, change.readAtTick);
+                    continue;
+                }
+
+                long blockKey = entry.getKey();
+                int x = SkyblockUtil.blockKeyX(blockKey);
+                int y = SkyblockUtil.blockKeyY(blockKey);
+                int z = SkyblockUtil.blockKeyZ(blockKey);
+
+                Material newType = world.getBlockAt(x, y, z).getType();
+                islandManager.applyBlockChange(x, y, z, change.oldType, newType, change.recordedAtTick);
+                iterator.remove();
+            }
+
+            if (!changes.isEmpty()) {
+                flushScheduled = true;
+                Bukkit.getScheduler().runTaskLater(plugin, this::flush, nextReadAtTick - tick);
+            }
+        }
+    }
+
+    /**
+     * The type of a block before it changed, and when to read its new type
+     */
+    private static class PendingChange {
+        private final Material oldType;
+        private final int recordedAtTick;
+        private long readAtTick;
+
+        PendingChange(Material oldType, int recordedAtTick, long readAtTick) {
+            this.oldType = oldType;
+            this.recordedAtTick = recordedAtTick;
+            this.readAtTick = readAtTick;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package dev.krutz.mc.skyblock;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.bukkit.Material;
+
+/**
+ * This class is used to store the last computed score of an island, and is used to serialize and deserialize the score to and from JSON.
+ * Block counts are stored by material name so they survive material changes between server versions.
+ */
+public class IslandScoreRecord {
+    @Expose @SerializedName("index") private int index;
+    @Expose @SerializedName("score") private double score;
+    @Expose @SerializedName("scored_at") private long scoredAt;
+    @Expose @SerializedName("blocks") private Map<String, Integer> blockCounts;
+
+    /**
+     * Create a record of an island's current score
+     * @param island
+     */
+    public IslandScoreRecord(Island island){
+        this.index = island.getIndex();
+        this.score = island.getScore();
+        this.scoredAt = island.getScoredAt();
+        this.blockCounts = new LinkedHashMap<>();
+
+        BlockCounts counts = island.getBlockCounts();
+        for (int position = 0; position < counts.size(); position++) {
+            if (counts.countAt(position) > 0) {
+                blockCounts.put(Island.getMaterial(counts.ordinalAt(position)).name(), counts.countAt(position));
+            }
+        }
+    }
+
+    /**
+     * Create a record from stored values
+     * @param index
+     * @param score
+     * @param scoredAt
+     * @param blockCounts Block counts by material name
+     */
+    public IslandScoreRecord(int index, double score, long scoredAt, Map<String, Integer> blockCounts){
+        this.index = index;
+        this.score = score;
+        this.scoredAt = scoredAt;
+        this.blockCounts = blockCounts;
+    }
+
+    /**
+     * Restore the score of an island from this record. The score is recalculated from the
+     * block counts so changes to the block weights apply right away.
+     * @param island
+     */
+    public void apply(Island island){
+        int[] counts = new int[Island.getMaterialCount()];
+        if (blockCounts != null) {
+            for (Map.Entry<String, Integer> entry : blockCounts.entrySet()) {
+                Material material = Material.getMaterial(entry.getKey());
+                if (material != null) {
+                    counts[material.ordinal()] = entry.getValue();
+                }
+            }
+        }
+
+        island.setScore(IslandScoreEngine.score(counts), counts, scoredAt);
+    }
+
+    /**
+     * Get the index of the island this record belongs to
+     * @return the island index
+     */
+    public int getIndex(){
+        return this.index;
+    }
+
+    /**
+     * Get the score stored in this record
+     * @return the stored score
+     */
+    public double getScore(){
+        return this.score;
+    }
+
+    /**
+     * Get the time of the scan the score was computed from
+     * @return Time in milliseconds
+     */
+    public long getScoredAt(){
+        return this.scoredAt;
+    }
+
+    /**
+     * Get the block counts stored in this record
+     * @return Read-only map of block counts by material name
+     */
+    public Map<String, Integer> getBlockCounts(){
+        return blockCounts == null ? Map.of() : Collections.unmodifiableMap(blockCounts);
+    }
+
+    /**
+     * Check if another record holds the same score, so it does not need to be saved again
+     * @param other
+     * @return True if the scan time, score and block counts are equal
+     */
+    public boolean hasSameScore(IslandScoreRecord other){
+        return other != null && index == other.index && scoredAt == other.scoredAt
+            && Double.compare(score, other.score) == 0 && getBlockCounts().equals(other.getBlockCounts());
+    }
+}
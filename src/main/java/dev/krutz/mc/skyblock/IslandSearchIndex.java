@@ -0,0 +1,155 @@
+package dev.krutz.mc.skyblock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * An immutable index of islands by island name, owner name and member names, for finding
+ * islands by name and completing island arguments. Keys are lowercase and sorted, so exact
+ * and prefix lookups are binary searches. A new index is built when islands or members change.
+ */
+public final class IslandSearchIndex {
+    private static final int OWNER = 0;
+    private static final int MEMBER = 1;
+    private static final int ISLAND_NAME = 2;
+
+    private final String[] keys; // Lowercase, sorted
+    private final String[] names; // Names as they are displayed
+    private final int[] islandIndexes;
+    private final long registryVersion;
+    private final long membershipVersion;
+    private final long nameVersion;
+
+    private IslandSearchIndex(Entry[] entries, long registryVersion, long membershipVersion, long nameVersion) {
+        this.keys = new String[entries.length];
+        this.names = new String[entries.length];
+        this.islandIndexes = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            keys[i] = entries[i].key();
+            names[i] = entries[i].name();
+            islandIndexes[i] = entries[i].islandIndex();
+        }
+        this.registryVersion = registryVersion;
+        this.membershipVersion = membershipVersion;
+        this.nameVersion = nameVersion;
+    }
+
+    /**
+     * Build an index of islands
+     * @param registry Islands to index
+     * @param membershipVersion Version of the membership index the islands were read at
+     * @param nameVersion Version of the player names the names were read at
+     * @param playerNames Looks up the name of a player, may return null for unknown players
+     * @return New index
+     */
+    public static IslandSearchIndex build(IslandRegistry registry, long membershipVersion, long nameVersion, Function<UUID, String> playerNames) {
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < registry.size(); i++) {
+            Island island = registry.get(i);
+            addEntry(entries, island.getName(), ISLAND_NAME, island.getIndex());
+            addEntry(entries, playerNames.apply(island.getOwnerUUID()), OWNER, island.getIndex());
+            for (IslandFriend friend : island.getFriends()) {
+                addEntry(entries, playerNames.apply(friend.getUUID()), MEMBER, island.getIndex());
+            }
+        }
+
+        // Player names sort before island names with the same key, so a name finds the player's island first
+        Entry[] sorted = entries.toArray(new Entry[0]);
+        Arrays.sort(sorted, (a, b) -> {
+            int byKey = a.key().compareTo(b.key());
+            return byKey != 0 ? byKey : Integer.compare(a.kind(), b.kind());
+        });
+        return new IslandSearchIndex(sorted, registry.getVersion(), membershipVersion, nameVersion);
+    }
+
+    /**
+     * Check if the index was built from the current islands, members and player names
+     * @param registryVersion
+     * @param membershipVersion
+     * @param nameVersion
+     * @return True if the index is up to date
+     */
+    public boolean isCurrent(long registryVersion, long membershipVersion, long nameVersion) {
+        return this.registryVersion == registryVersion && this.membershipVersion == membershipVersion
+            && this.nameVersion == nameVersion;
+    }
+
+    /**
+     * Find an island by island name, owner name or member name
+     * @param query Case-insensitive name
+     * @return Island index, or -1 if no name matches exactly
+     */
+    public int find(String query) {
+        int position = firstAtOrAfter(query.toLowerCase(Locale.ROOT));
+        if (position < keys.length && keys[position].equals(query.toLowerCase(Locale.ROOT))) {
+            return islandIndexes[position];
+        }
+        return -1;
+    }
+
+    /**
+     * Get up to limit names starting with a prefix, in alphabetical order
+     * @param prefix Case-insensitive prefix
+     * @param limit Maximum number of names to return
+     * @return Matching island, owner and member names that are a single word
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        Set<String> suggestions = new LinkedHashSet<>();
+        for (int position = firstAtOrAfter(key); position < keys.length && keys[position].startsWith(key); position++) {
+            if (suggestions.size() >= limit) {
+                break;
+            }
+            // Arguments are split on spaces, so only single word names can be completed
+            if (names[position].indexOf(' ') < 0) {
+                suggestions.add(names[position]);
+            }
+        }
+        return new ArrayList<>(suggestions);
+    }
+
+    /**
+     * Get the number of names in the index
+     * @return Number of names
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    ////////////////////////////////////////////
+    /// Helper methods
+    ////////////////////////////////////////////
+
+    /**
+     * Get the position of the first entry for a key, or the position it would be inserted at
+     * @param key Lowercase key
+     * @return Position between 0 and size()
+     */
+    private int firstAtOrAfter(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static void addEntry(List<Entry> entries, String name, int kind, int islandIndex) {
+        if (name != null && !name.isEmpty()) {
+            entries.add(new Entry(name.toLowerCase(Locale.ROOT), name, kind, islandIndex));
+        }
+    }
+
+    private record Entry(String key, String name, int kind, int islandIndex) {}
+}
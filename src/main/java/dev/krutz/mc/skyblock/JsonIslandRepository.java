@@ -0,0 +1,267 @@
+package dev.krutz.mc.skyblock;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Stores island data as JSON, one file per island named by island index, and the island scores the same way.
+ * A single islands file from an older version is split into one file per island when islands are loaded,
+ * and a single scores file of an older version is split up by the first save of the scores.
+ */
+public class JsonIslandRepository implements IslandRepository {
+    // Constants that are not configurable
+    private static final String ISLANDS_FILE = "island-data.json"; // Islands data file of older versions, migrated to ISLANDS_DIRECTORY
+    private static final String ISLANDS_DIRECTORY = "islands"; // Directory with one data file per island, named by island index
+    private static final String SCORES_FILE = "island-scores.json"; // Island scores of older versions, migrated to SCORES_DIRECTORY
+    private static final String SCORES_DIRECTORY = "scores"; // Directory with the last computed score of each island, named by island index
+
+    // Instance variables
+    private final File dataFolder;
+    private final Logger logger;
+    private final Gson saveGson = new GsonBuilder()
+        .setPrettyPrinting()
+        .excludeFieldsWithoutExposeAnnotation()
+        .create();
+    private final Map<Integer, IslandScoreRecord> savedScores = new HashMap<>(); // Last saved or loaded score record of each island
+
+    /**
+     * Create a repository that stores files in a folder
+     * @param dataFolder
+     * @param logger
+     */
+    public JsonIslandRepository(File dataFolder, Logger logger) {
+        this.dataFolder = dataFolder;
+        this.logger = logger;
+    }
+
+    @Override
+    public List<Island> loadIslands() throws IOException {
+        if (getIslandFile().exists()) {
+            return migrateIslandFile();
+        }
+
+        List<Island> loadedIslands = new ArrayList<>();
+        File[] files = getIslandDirectory().listFiles((directory, name) -> name.endsWith(".json"));
+        if (files == null) {
+            return loadedIslands;
+        }
+
+        Gson gson = new Gson();
+        for (File file : files) {
+            try (FileReader reader = new FileReader(file)) {
+                Island island = gson.fromJson(reader, Island.class);
+                if (island != null) {
+                    loadedIslands.add(island);
+                }
+            }
+            catch (IOException | RuntimeException e) {
+                logger.severe("Failed to load island file " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        return loadedIslands;
+    }
+
+    @Override
+    public List<IslandScoreRecord> loadScores() throws IOException {
+        savedScores.clear();
+        File scoresFile = getScoresFile();
+        if (scoresFile.exists()) {
+            // Nothing is remembered as saved, so the first save writes every score to its own file
+            try (FileReader reader = new FileReader(scoresFile)) 
+            { 
+                Gson gson = new Gson(); 
+                List<IslandScoreRecord> records = gson.fromJson(reader, new TypeToken<List<IslandScoreRecord>>() {}.getType());
+                return records != null ? records : new ArrayList<>();
+            }
+        }
+
+        List<IslandScoreRecord> records = new ArrayList<>();
+        File[] files = getScoresDirectory().listFiles((directory, name) -> name.endsWith(".json"));
+        if (files == null) {
+            return records;
+        }
+
+        Gson gson = new Gson();
+        for (File file : files) {
+            try (FileReader reader = new FileReader(file)) {
+                IslandScoreRecord record = gson.fromJson(reader, IslandScoreRecord.class);
+                if (record != null) {
+                    records.add(record);
+                    savedScores.put(record.getIndex(), record);
+                }
+            }
+            catch (IOException | RuntimeException e) {
+                logger.warning("Failed to load score file " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public void saveIslands(List<IslandRecord> records) throws IOException {
+        getIslandDirectory().mkdirs();
+
+        // Every record is attempted, a failed record does not stop the others from being saved
+        int failed = 0;
+        for (IslandRecord record : records) {
+            try {
+                writeIslandRecord(record);
+            } catch (IOException e) {
+                logger.severe("Failed to save island " + record.getIndex() + ": " + e.getMessage());
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            throw new IOException(failed + " of " + records.size() + " islands could not be saved");
+        }
+    }
+
+    @Override
+    public void deleteIslands(List<Integer> indexes) throws IOException {
+        for (Integer index : indexes) {
+            File file = getIslandFile(index);
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Could not delete " + file.getName());
+            }
+        }
+    }
+
+    @Override
+    public void saveScores(List<IslandScoreRecord> records) throws IOException {
+        getScoresDirectory().mkdirs();
+
+        // Only scores that changed since they were last saved are written
+        int failed = 0;
+        Set<Integer> listed = new HashSet<>();
+        for (IslandScoreRecord record : records) {
+            listed.add(record.getIndex());
+            if (record.hasSameScore(savedScores.get(record.getIndex()))) {
+                continue;
+            }
+            try {
+                byte[] json = saveGson.toJson(record).getBytes(StandardCharsets.UTF_8);
+                SkyblockUtil.writeFileAtomically(getScoreFile(record.getIndex()), json);
+                savedScores.put(record.getIndex(), record);
+            } catch (IOException e) {
+                logger.severe("Failed to save the score of island " + record.getIndex() + ": " + e.getMessage());
+                failed++;
+            }
+        }
+
+        savedScores.keySet().removeIf(index -> {
+            if (listed.contains(index)) {
+                return false;
+            }
+            File file = getScoreFile(index);
+            return !file.exists() || file.delete();
+        });
+
+        if (failed > 0) {
+            throw new IOException(failed + " of " + records.size() + " island scores could not be saved");
+        }
+
+        // Every score now has its own file
+        File scoresFile = getScoresFile();
+        if (scoresFile.exists() && !scoresFile.delete()) {
+            logger.warning("Could not delete " + SCORES_FILE + " after splitting it into " + SCORES_DIRECTORY + "/.");
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        String[] files = getIslandDirectory().list((directory, name) -> name.endsWith(".json"));
+        return !getIslandFile().exists() && (files == null || files.length == 0);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    ////////////////////////////////////////////
+    /// Helper methods
+    ////////////////////////////////////////////
+
+    /**
+     * Move the islands in the single islands file of an older version into one file per island.
+     * The old file is renamed once every island has been written, so an interrupted migration runs again.
+     * @return Islands loaded from the old file
+     * @throws IOException if the old file could not be read
+     */
+    private List<Island> migrateIslandFile() throws IOException {
+        File islandFile = getIslandFile();
+        List<Island> loadedIslands;
+        try (FileReader reader = new FileReader(islandFile)) 
+        { 
+            Gson gson = new Gson(); 
+            loadedIslands = gson.fromJson(reader, new TypeToken<List<Island>>() {}.getType());
+        }
+        if (loadedIslands == null) {
+            loadedIslands = new ArrayList<>();
+        }
+
+        try {
+            getIslandDirectory().mkdirs();
+            for (Island island : loadedIslands) {
+                writeIslandRecord(island.createRecord());
+            }
+            File migratedFile = new File(dataFolder, ISLANDS_FILE + ".migrated");
+            if (!islandFile.renameTo(migratedFile)) {
+                throw new IOException("Could not rename " + ISLANDS_FILE);
+            }
+            logger.info("Migrated " + loadedIslands.size() + " islands to " + ISLANDS_DIRECTORY + "/.");
+        }
+        catch (IOException e) {
+            logger.severe("Failed to migrate " + ISLANDS_FILE + ", it will be migrated again on the next start: " + e.getMessage());
+            // Unsaved islands are written by the next save
+            loadedIslands.forEach(island -> island.setModified(true));
+        }
+        return loadedIslands;
+    }
+
+    /**
+     * Write an island record to the data file of the island, safely replacing the old file
+     * @param record
+     * @throws IOException
+     */
+    private void writeIslandRecord(IslandRecord record) throws IOException {
+        byte[] json = saveGson.toJson(record).getBytes(StandardCharsets.UTF_8);
+        SkyblockUtil.writeFileAtomically(getIslandFile(record.getIndex()), json);
+    }
+
+    private File getIslandFile() {
+        return new File(dataFolder, ISLANDS_FILE);
+    }
+
+    private File getIslandDirectory() {
+        return new File(dataFolder, ISLANDS_DIRECTORY);
+    }
+
+    private File getIslandFile(int index) {
+        return new File(getIslandDirectory(), index + ".json");
+    }
+
+    private File getScoresFile() {
+        return new File(dataFolder, SCORES_FILE);
+    }
+
+    private File getScoresDirectory() {
+        return new File(dataFolder, SCORES_DIRECTORY);
+    }
+
+    private File getScoreFile(int index) {
+        return new File(getScoresDirectory(), index + ".json");
+    }
+}
@@ -43,11 +43,15 @@ public class Main extends JavaPlugin {
         ChallengeManager.initialize(this);
 
         // Register commands
+        commandManager.setProfileCache(PlayerProfileCache.getInstance(this));
         new EssentialsCommandManager().registerCommands(commandManager);
         new IslandCommandManager().registerCommands(commandManager, islandManager);
         new ChallengeCommandManager().registerCommands(commandManager);
 
+        getServer().getPluginManager().registerEvents(WorldCache.getInstance(), this);
+        getServer().getPluginManager().registerEvents(PlayerProfileCache.getInstance(this), this);
         getServer().getPluginManager().registerEvents(IslandListener.getInstance(islandManager), this);
+        getServer().getPluginManager().registerEvents(IslandScoreListener.getInstance(this, islandManager), this);
 
         getLogger().info("Skyblock plugin has been enabled!");
 
@@ -57,7 +61,7 @@ public class Main extends JavaPlugin {
     @Override
     public void onDisable() {
         if(islandManager != null)
-            islandManager.saveData();
+            islandManager.shutdown();
         
         getLogger().info("Skyblock plugin has been disabled!");
         
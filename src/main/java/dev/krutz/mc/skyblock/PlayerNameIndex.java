@@ -0,0 +1,131 @@
+package dev.krutz.mc.skyblock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A sorted index of player names for tab completion. Names are kept in a sorted array of
+ * lowercase keys, so the names starting with a prefix are found with a binary search
+ * instead of a scan over every player that has ever joined.
+ */
+public class PlayerNameIndex {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private String[] keys = new String[INITIAL_CAPACITY]; // Lowercase names, sorted
+    private String[] names = new String[INITIAL_CAPACITY]; // Names as they are displayed
+    private int size = 0;
+
+    /**
+     * Add a name to the index. A name that is already present is updated to the new capitalization.
+     * @param name
+     */
+    public synchronized void add(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        int position = Arrays.binarySearch(keys, 0, size, key);
+        if (position >= 0) {
+            names[position] = name;
+            return;
+        }
+
+        // Insert the new name, keeping the keys sorted
+        position = -position - 1;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            names = Arrays.copyOf(names, size * 2);
+        }
+        System.arraycopy(keys, position, keys, position + 1, size - position);
+        System.arraycopy(names, position, names, position + 1, size - position);
+        keys[position] = key;
+        names[position] = name;
+        size++;
+    }
+
+    /**
+     * Add many names to the index at once. The names are sorted once instead of inserted one by one.
+     * @param newNames
+     */
+    public synchronized void addAll(Collection<String> newNames) {
+        String[] mergedKeys = Arrays.copyOf(keys, size + newNames.size());
+        String[] mergedNames = Arrays.copyOf(names, mergedKeys.length);
+        int count = size;
+        for (String name : newNames) {
+            mergedKeys[count] = name.toLowerCase(Locale.ROOT);
+            mergedNames[count] = name;
+            count++;
+        }
+
+        // Sort positions by key, then keep the first name of each key. Existing names come first and win.
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> mergedKeys[a].compareTo(mergedKeys[b]));
+
+        String[] sortedKeys = new String[Math.max(count, INITIAL_CAPACITY)];
+        String[] sortedNames = new String[sortedKeys.length];
+        int sortedSize = 0;
+        for (int i = 0; i < count; i++) {
+            String key = mergedKeys[order[i]];
+            if (sortedSize > 0 && sortedKeys[sortedSize - 1].equals(key)) {
+                continue;
+            }
+            sortedKeys[sortedSize] = key;
+            sortedNames[sortedSize] = mergedNames[order[i]];
+            sortedSize++;
+        }
+
+        keys = sortedKeys;
+        names = sortedNames;
+        size = sortedSize;
+    }
+
+    /**
+     * Remove a name from the index
+     * @param name
+     */
+    public synchronized void remove(String name) {
+        int position = Arrays.binarySearch(keys, 0, size, name.toLowerCase(Locale.ROOT));
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+        System.arraycopy(names, position + 1, names, position, size - position - 1);
+        size--;
+        keys[size] = null;
+        names[size] = null;
+    }
+
+    /**
+     * Get up to limit names that start with a prefix, in alphabetical order
+     * @param prefix Case-insensitive prefix
+     * @param limit Maximum number of names to return
+     * @return Matching names
+     */
+    public synchronized List<String> startingWith(String prefix, int limit) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+
+        // The first key that is not smaller than the prefix is the first match, if any
+        int position = Arrays.binarySearch(keys, 0, size, key);
+        if (position < 0) {
+            position = -position - 1;
+        }
+
+        List<String> matches = new ArrayList<>(Math.min(limit, 16));
+        while (position < size && matches.size() < limit && keys[position].startsWith(key)) {
+            matches.add(names[position]);
+            position++;
+        }
+        return matches;
+    }
+
+    /**
+     * Get the number of names in the index
+     * @return Number of names
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,260 @@
+package dev.krutz.mc.skyblock;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/*
+ * A listener singleton class that maps player names to UUIDs without blocking the main thread.
+ * The cache is filled from the server's usercache.json and from players joining. Names that are
+ * not cached are looked up asynchronously, and the result is handed back on the main thread.
+ */
+public class PlayerProfileCache implements Listener {
+    private static PlayerProfileCache instance;
+
+    // Constants that are not configurable
+    private static final String USER_CACHE_FILE = "usercache.json";
+
+    // Instance variables
+    private final JavaPlugin plugin;
+    private final Map<String, UUID> uuidsByName = new ConcurrentHashMap<>(); // Keyed by lowercase name
+    private final Map<UUID, String> namesByUUID = new ConcurrentHashMap<>();
+    private final PlayerNameIndex nameIndex = new PlayerNameIndex();
+    private final AtomicLong version = new AtomicLong(); // Incremented every time a name is added or changed
+
+    /**
+     * Get the instance of the PlayerProfileCache singleton.
+     * @param plugin - JavaPlugin instance (usually the main class of your plugin)
+     * @return The PlayerProfileCache instance
+     */
+    public static synchronized PlayerProfileCache getInstance(JavaPlugin plugin) {
+        // Create a new instance if it doesn't exist
+        if (instance == null) {
+            instance = new PlayerProfileCache(plugin);
+        }
+        return instance;
+    }
+
+    /**
+     * Private constructor for the PlayerProfileCache singleton.
+     * Online players are added right away, the usercache is read asynchronously.
+     */
+    private PlayerProfileCache(JavaPlugin plugin) {
+        this.plugin = plugin;
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            put(player.getUniqueId(), player.getName());
+        }
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, this::loadUserCache);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        put(player.getUniqueId(), player.getName());
+    }
+
+    /**
+     * Add or update a player's name. A previous name of the player is forgotten.
+     * @param uuid
+     * @param name
+     */
+    public void put(UUID uuid, String name) {
+        if (uuid == null || name == null) {
+            return;
+        }
+
+        String previousName = namesByUUID.put(uuid, name);
+        if (previousName != null && !previousName.equalsIgnoreCase(name)
+                && uuidsByName.remove(previousName.toLowerCase(Locale.ROOT), uuid)) {
+            nameIndex.remove(previousName);
+        }
+        uuidsByName.put(name.toLowerCase(Locale.ROOT), uuid);
+        nameIndex.add(name);
+        if (!name.equals(previousName)) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Get the UUID of a player by name without blocking. Only cached profiles are checked.
+     * @param name Case-insensitive player name
+     * @return UUID or null if the name is not cached
+     */
+    public UUID getUUID(String name) {
+        UUID uuid = uuidsByName.get(name.toLowerCase(Locale.ROOT));
+        if (uuid != null) {
+            return uuid;
+        }
+
+        // The server's own profile cache is checked without a web request
+        OfflinePlayer cached = Bukkit.getOfflinePlayerIfCached(name);
+        if (cached != null) {
+            put(cached.getUniqueId(), cached.getName());
+            return cached.getUniqueId();
+        }
+        return null;
+    }
+
+    /**
+     * Get the last known name of a player
+     * @param uuid
+     * @return Player name or null if the player is not known
+     */
+    public String getName(UUID uuid) {
+        String name = namesByUUID.get(uuid);
+        if (name != null) {
+            return name;
+        }
+
+        // Looking up an offline player by UUID reads local player data only
+        name = Bukkit.getOfflinePlayer(uuid).getName();
+        put(uuid, name);
+        return name;
+    }
+
+    /**
+     * Get the name of a player from the cache only, without reading player data
+     * @param uuid
+     * @return Player name or null if the player is not cached
+     */
+    public String getCachedName(UUID uuid) {
+        return namesByUUID.get(uuid);
+    }
+
+    /**
+     * Resolve a player name to a UUID. Cached names are resolved right away, other names are
+     * looked up on an async thread. The callback always runs on the main thread.
+     * @param name Case-insensitive player name
+     * @param callback Receives the UUID, or null if the name could not be resolved
+     */
+    public void resolve(String name, Consumer<UUID> callback) {
+        UUID uuid = getUUID(name);
+        if (uuid != null) {
+            callback.accept(uuid);
+            return;
+        }
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            // May block on a profile lookup, which is why it is not done on the main thread
+            OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(name);
+
+            // Any name gets a UUID, only players that have been on the server count as resolved
+            boolean isKnown = offlinePlayer.hasPlayedBefore() || offlinePlayer.isOnline();
+            UUID resolved = isKnown ? offlinePlayer.getUniqueId() : null;
+            if (resolved != null) {
+                put(resolved, offlinePlayer.getName() != null ? offlinePlayer.getName() : name);
+            }
+
+            Bukkit.getScheduler().runTask(plugin, () -> callback.accept(resolved));
+        });
+    }
+
+    /**
+     * Suggest player names for tab completion. Online players are suggested first,
+     * followed by other known players in alphabetical order.
+     * @param prefix Case-insensitive prefix the player has typed
+     * @param limit Maximum number of names to suggest
+     * @return Suggested names
+     */
+    public List<String> suggestNames(String prefix, int limit) {
+        List<String> suggestions = new ArrayList<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (suggestions.size() >= limit) {
+                return suggestions;
+            }
+            if (player.getName().regionMatches(true, 0, prefix, 0, prefix.length())) {
+                suggestions.add(player.getName());
+            }
+        }
+
+        for (String name : nameIndex.startingWith(prefix, limit)) {
+            if (suggestions.size() >= limit) {
+                break;
+            }
+            // Online players have already been suggested
+            if (Bukkit.getPlayerExact(name) == null) {
+                suggestions.add(name);
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Get the version of the cache, which changes every time a name is added or changed
+     * @return Version number
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Get the number of cached players
+     * @return Number of cached players
+     */
+    public int size() {
+        return namesByUUID.size();
+    }
+
+    ////////////////////////////////////////////
+    /// Helper methods
+    ////////////////////////////////////////////
+
+    /**
+     * Read the server's usercache.json, which lists the profiles of recently seen players
+     */
+    private void loadUserCache() {
+        File userCacheFile = new File(Bukkit.getWorldContainer(), USER_CACHE_FILE);
+        if (!userCacheFile.exists()) {
+            return;
+        }
+
+        try (FileReader reader = new FileReader(userCacheFile)) {
+            JsonArray entries = JsonParser.parseReader(reader).getAsJsonArray();
+            List<String> names = new ArrayList<>(entries.size());
+            for (JsonElement element : entries) {
+                JsonObject entry = element.getAsJsonObject();
+                if (!entry.has("name") || !entry.has("uuid")) {
+                    continue;
+                }
+
+                UUID uuid = UUID.fromString(entry.get("uuid").getAsString());
+                String name = entry.get("name").getAsString();
+
+                // Joins since startup are newer than the usercache
+                namesByUUID.putIfAbsent(uuid, name);
+                if (uuidsByName.putIfAbsent(name.toLowerCase(Locale.ROOT), uuid) == null) {
+                    names.add(name);
+                }
+            }
+            nameIndex.addAll(names);
+            version.incrementAndGet();
+            plugin.getLogger().info("Loaded " + entries.size() + " player profiles from " + USER_CACHE_FILE);
+        } catch (IOException | RuntimeException e) {
+            plugin.getLogger().warning("Failed to read " + USER_CACHE_FILE + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,14 @@
 package dev.krutz.mc.skyblock;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
 public class SkyblockUtil {
 
     public static class ComplexityHue {
@@ -20,6 +29,72 @@ public class SkyblockUtil {
         }
     }
 
+    /**
+     * Pack chunk coordinates into a single long key.
+     * @param chunkX
+     * @param chunkZ
+     * @return Chunk key
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get the chunk x coordinate from a chunk key.
+     * @param chunkKey
+     * @return Chunk x coordinate
+     */
+    public static int chunkKeyX(long chunkKey) {
+        return (int) (chunkKey >> 32);
+    }
+
+    /**
+     * Get the chunk z coordinate from a chunk key.
+     * @param chunkKey
+     * @return Chunk z coordinate
+     */
+    public static int chunkKeyZ(long chunkKey) {
+        return (int) chunkKey;
+    }
+
+    /**
+     * Pack block coordinates into a single long key. X and Z use 26 bits and Y uses 12 bits.
+     * @param x
+     * @param y
+     * @param z
+     * @return Block key
+     */
+    public static long blockKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    /**
+     * Get the block x coordinate from a block key.
+     * @param blockKey
+     * @return Block x coordinate
+     */
+    public static int blockKeyX(long blockKey) {
+        return (int) (blockKey >> 38);
+    }
+
+    /**
+     * Get the block y coordinate from a block key.
+     * @param blockKey
+     * @return Block y coordinate
+     */
+    public static int blockKeyY(long blockKey) {
+        return (int) (blockKey << 52 >> 52);
+    }
+
+    /**
+     * Get the block z coordinate from a block key.
+     * @param blockKey
+     * @return Block z coordinate
+     */
+    public static int blockKeyZ(long blockKey) {
+        return (int) (blockKey << 26 >> 38);
+    }
+
     // make static method that turns Challenge Complexity into a hue
     public static ComplexityHue getHueStartAndStopFromComplexity(Challenge.ChallengeComplexity complexity) {
         final int MAX_DIFFICULTY = Challenge.ChallengeComplexity.values().length;
@@ -29,6 +104,41 @@ public class SkyblockUtil {
         return new ComplexityHue(hueStart, hueEnd);
     }
 
+    /**
+     * Write a file so that it holds either the old or the new contents, even if the server crashes.
+     * The data is written to a temporary file and flushed to disk, then moved over the target.
+     * @param file
+     * @param data
+     * @throws IOException
+     */
+    public static void writeFileAtomically(File file, byte[] data) throws IOException {
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(target.getParent());
+    }
+
+    /**
+     * Flush a directory to disk so that files moved into it survive a crash.
+     * Not every platform can open a directory, there the move is left to the file system.
+     * @param directory
+     */
+    public static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened on Windows
+        }
+    }
+
     // public Component generateIncorrectSyntaxMessage(String command, String feedback, String usage) {
     //     ComponentBuilder builder = new ComponentBuilder();
     //     builder.append(feedback);
@@ -0,0 +1,90 @@
+package dev.krutz.mc.skyblock;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+
+/**
+ * Reads blocks from chunk snapshots covering a rectangle of chunks.
+ * Snapshots are immutable copies of the world, so this source is safe to read from any thread.
+ */
+public class SnapshotBlockSource implements BlockSource {
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int width;
+    private final int length;
+    private final int minHeight;
+    private final int maxHeight;
+    private final ChunkSnapshot[] snapshots; // Indexed by (chunkX - minChunkX) * length + (chunkZ - minChunkZ)
+
+    /**
+     * Create a source from snapshots of the given chunks. Blocks outside the chunks read as AIR.
+     * @param chunkKeys Chunk keys, see SkyblockUtil.chunkKey
+     * @param snapshots Snapshot of each chunk, in the same order as chunkKeys
+     * @param minHeight Lowest y coordinate of the world
+     * @param maxHeight Height limit of the world
+     */
+    public SnapshotBlockSource(long[] chunkKeys, ChunkSnapshot[] snapshots, int minHeight, int maxHeight) {
+        int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (long chunkKey : chunkKeys) {
+            minX = Math.min(minX, SkyblockUtil.chunkKeyX(chunkKey));
+            minZ = Math.min(minZ, SkyblockUtil.chunkKeyZ(chunkKey));
+            maxX = Math.max(maxX, SkyblockUtil.chunkKeyX(chunkKey));
+            maxZ = Math.max(maxZ, SkyblockUtil.chunkKeyZ(chunkKey));
+        }
+
+        this.minChunkX = minX;
+        this.minChunkZ = minZ;
+        this.width = chunkKeys.length == 0 ? 0 : maxX - minX + 1;
+        this.length = chunkKeys.length == 0 ? 0 : maxZ - minZ + 1;
+        this.minHeight = minHeight;
+        this.maxHeight = maxHeight;
+        this.snapshots = new ChunkSnapshot[width * length];
+
+        for (int i = 0; i < chunkKeys.length; i++) {
+            int chunkX = SkyblockUtil.chunkKeyX(chunkKeys[i]);
+            int chunkZ = SkyblockUtil.chunkKeyZ(chunkKeys[i]);
+            this.snapshots[(chunkX - minChunkX) * length + (chunkZ - minChunkZ)] = snapshots[i];
+        }
+    }
+
+    @Override
+    public int getMinHeight() {
+        return minHeight;
+    }
+
+    @Override
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    @Override
+    public Material getBlockType(int x, int y, int z) {
+        ChunkSnapshot snapshot = getSnapshot(x >> 4, z >> 4);
+        if (snapshot == null) {
+            return Material.AIR;
+        }
+        return snapshot.getBlockType(x & 15, y, z & 15);
+    }
+
+    @Override
+    public boolean isSectionEmpty(int chunkX, int chunkZ, int section) {
+        ChunkSnapshot snapshot = getSnapshot(chunkX, chunkZ);
+        return snapshot == null || snapshot.isSectionEmpty(section);
+    }
+
+    /**
+     * Get the snapshot of a chunk
+     * @param chunkX
+     * @param chunkZ
+     * @return Snapshot, or null if the chunk is not covered by this source
+     */
+    private ChunkSnapshot getSnapshot(int chunkX, int chunkZ) {
+        int offsetX = chunkX - minChunkX;
+        int offsetZ = chunkZ - minChunkZ;
+        if (offsetX < 0 || offsetX >= width || offsetZ < 0 || offsetZ >= length) {
+            return null;
+        }
+        return snapshots[offsetX * length + offsetZ];
+    }
+}
@@ -0,0 +1,374 @@
+package dev.krutz.mc.skyblock;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Stores island data in an embedded SQLite database, with indexed tables for islands, members, bans and scores.
+ * Saves run as one transaction with batched prepared statements, and only the islands that changed are written.
+ * The SQLite driver ships with the server, so no extra library is needed.
+ */
+public class SqliteIslandRepository implements IslandRepository {
+    // Constants that are not configurable
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS islands ("
+            + "island_index INTEGER PRIMARY KEY, x INTEGER NOT NULL, z INTEGER NOT NULL, name TEXT, owner TEXT NOT NULL, "
+            + "greeting_message TEXT, farewell_message TEXT, "
+            + "spawn_world TEXT, spawn_x REAL, spawn_y REAL, spawn_z REAL, spawn_yaw REAL, spawn_pitch REAL, "
+            + "warp_world TEXT, warp_x REAL, warp_y REAL, warp_z REAL, warp_yaw REAL, warp_pitch REAL, "
+            + "is_locked INTEGER NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS islands_owner ON islands (owner)",
+        "CREATE TABLE IF NOT EXISTS island_members ("
+            + "island_index INTEGER NOT NULL, position INTEGER NOT NULL, player TEXT NOT NULL, permissions TEXT NOT NULL, "
+            + "PRIMARY KEY (island_index, position))",
+        "CREATE INDEX IF NOT EXISTS island_members_player ON island_members (player)",
+        "CREATE TABLE IF NOT EXISTS island_bans ("
+            + "island_index INTEGER NOT NULL, position INTEGER NOT NULL, player TEXT NOT NULL, "
+            + "PRIMARY KEY (island_index, position))",
+        "CREATE INDEX IF NOT EXISTS island_bans_player ON island_bans (player)",
+        "CREATE TABLE IF NOT EXISTS island_scores ("
+            + "island_index INTEGER PRIMARY KEY, score REAL NOT NULL, scored_at INTEGER NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS island_score_blocks ("
+            + "island_index INTEGER NOT NULL, material TEXT NOT NULL, count INTEGER NOT NULL, "
+            + "PRIMARY KEY (island_index, material))"
+    };
+    private static final String PERMISSION_SEPARATOR = ",";
+
+    // Instance variables
+    private final Logger logger;
+    private final Connection connection;
+    private final Map<Integer, IslandScoreRecord> savedScores = new HashMap<>(); // Last saved or loaded score record of each island
+
+    /**
+     * Open or create a database file
+     * @param databaseFile
+     * @param logger
+     * @throws IOException if the database could not be opened
+     */
+    public SqliteIslandRepository(File databaseFile, Logger logger) throws IOException {
+        this.logger = logger;
+        try {
+            Class.forName("org.sqlite.JDBC");
+            connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+            try (Statement statement = connection.createStatement()) {
+                // The write-ahead log lets a save commit without rewriting the database
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=FULL");
+                for (String sql : SCHEMA) {
+                    statement.execute(sql);
+                }
+            }
+        } catch (ClassNotFoundException | SQLException e) {
+            throw new IOException("Could not open " + databaseFile.getName(), e);
+        }
+    }
+
+    @Override
+    public synchronized List<Island> loadIslands() throws IOException {
+        try {
+            Map<Integer, List<IslandFriend>> friends = new HashMap<>();
+            try (Statement statement = connection.createStatement();
+                    ResultSet rows = statement.executeQuery("SELECT island_index, player, permissions FROM island_members ORDER BY island_index, position")) {
+                while (rows.next()) {
+                    String permissions = rows.getString("permissions");
+                    ArrayList<String> permissionList = permissions.isEmpty()
+                        ? new ArrayList<>()
+                        : new ArrayList<>(Arrays.asList(permissions.split(PERMISSION_SEPARATOR)));
+                    friends.computeIfAbsent(rows.getInt("island_index"), index -> new ArrayList<>())
+                        .add(new IslandFriend(UUID.fromString(rows.getString("player")), permissionList));
+                }
+            }
+
+            Map<Integer, List<UUID>> bans = new HashMap<>();
+            try (Statement statement = connection.createStatement();
+                    ResultSet rows = statement.executeQuery("SELECT island_index, player FROM island_bans ORDER BY island_index, position")) {
+                while (rows.next()) {
+                    bans.computeIfAbsent(rows.getInt("island_index"), index -> new ArrayList<>())
+                        .add(UUID.fromString(rows.getString("player")));
+                }
+            }
+
+            List<Island> loadedIslands = new ArrayList<>();
+            try (Statement statement = connection.createStatement();
+                    ResultSet rows = statement.executeQuery("SELECT * FROM islands")) {
+                while (rows.next()) {
+                    int index = rows.getInt("island_index");
+                    IslandRecord record = new IslandRecord(
+                        rows.getInt("x"), rows.getInt("z"), rows.getString("name"), index,
+                        UUID.fromString(rows.getString("owner")),
+                        friends.getOrDefault(index, new ArrayList<>()), bans.getOrDefault(index, new ArrayList<>()),
+                        rows.getString("greeting_message"), rows.getString("farewell_message"),
+                        readLocation(rows, "spawn_"), readLocation(rows, "warp_"),
+                        rows.getInt("is_locked") != 0, 0);
+                    loadedIslands.add(record.toIsland());
+                }
+            }
+            return loadedIslands;
+        } catch (SQLException e) {
+            throw new IOException("Could not load islands", e);
+        }
+    }
+
+    @Override
+    public synchronized List<IslandScoreRecord> loadScores() throws IOException {
+        savedScores.clear();
+        try {
+            Map<Integer, Map<String, Integer>> blockCounts = new HashMap<>();
+            try (Statement statement = connection.createStatement();
+                    ResultSet rows = statement.executeQuery("SELECT island_index, material, count FROM island_score_blocks")) {
+                while (rows.next()) {
+                    blockCounts.computeIfAbsent(rows.getInt("island_index"), index -> new LinkedHashMap<>())
+                        .put(rows.getString("material"), rows.getInt("count"));
+                }
+            }
+
+            List<IslandScoreRecord> records = new ArrayList<>();
+            try (Statement statement = connection.createStatement();
+                    ResultSet rows = statement.executeQuery("SELECT island_index, score, scored_at FROM island_scores")) {
+                while (rows.next()) {
+                    int index = rows.getInt("island_index");
+                    IslandScoreRecord record = new IslandScoreRecord(index, rows.getDouble("score"), rows.getLong("scored_at"),
+                        blockCounts.getOrDefault(index, new LinkedHashMap<>()));
+                    records.add(record);
+                    savedScores.put(index, record);
+                }
+            }
+            return records;
+        } catch (SQLException e) {
+            throw new IOException("Could not load island scores", e);
+        }
+    }
+
+    @Override
+    public synchronized void saveIslands(List<IslandRecord> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        inTransaction(() -> {
+            try (PreparedStatement upsertIsland = connection.prepareStatement(
+                    "INSERT OR REPLACE INTO islands VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+                    PreparedStatement deleteMembers = connection.prepareStatement("DELETE FROM island_members WHERE island_index = ?");
+                    PreparedStatement insertMember = connection.prepareStatement("INSERT INTO island_members VALUES (?, ?, ?, ?)");
+                    PreparedStatement deleteBans = connection.prepareStatement("DELETE FROM island_bans WHERE island_index = ?");
+                    PreparedStatement insertBan = connection.prepareStatement("INSERT INTO island_bans VALUES (?, ?, ?)")) {
+                for (IslandRecord record : records) {
+                    int index = record.getIndex();
+                    upsertIsland.setInt(1, index);
+                    upsertIsland.setInt(2, record.getX());
+                    upsertIsland.setInt(3, record.getZ());
+                    upsertIsland.setString(4, record.getName());
+                    upsertIsland.setString(5, record.getOwnerUUID().toString());
+                    upsertIsland.setString(6, record.getEnterMessage());
+                    upsertIsland.setString(7, record.getExitMessage());
+                    writeLocation(upsertIsland, 8, record.getIslandSpawn());
+                    writeLocation(upsertIsland, 14, record.getIslandWarp());
+                    upsertIsland.setInt(20, record.isLocked() ? 1 : 0);
+                    upsertIsland.addBatch();
+
+                    deleteMembers.setInt(1, index);
+                    deleteMembers.addBatch();
+                    int position = 0;
+                    for (IslandFriend friend : record.getFriends()) {
+                        insertMember.setInt(1, index);
+                        insertMember.setInt(2, position++);
+                        insertMember.setString(3, friend.getUUID().toString());
+                        insertMember.setString(4, String.join(PERMISSION_SEPARATOR, friend.getPermissions()));
+                        insertMember.addBatch();
+                    }
+
+                    deleteBans.setInt(1, index);
+                    deleteBans.addBatch();
+                    position = 0;
+                    for (UUID banned : record.getBanList()) {
+                        insertBan.setInt(1, index);
+                        insertBan.setInt(2, position++);
+                        insertBan.setString(3, banned.toString());
+                        insertBan.addBatch();
+                    }
+                }
+
+                // Old members and bans are deleted before the new ones are inserted
+                upsertIsland.executeBatch();
+                deleteMembers.executeBatch();
+                deleteBans.executeBatch();
+                insertMember.executeBatch();
+                insertBan.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    public synchronized void deleteIslands(List<Integer> indexes) throws IOException {
+        if (indexes.isEmpty()) {
+            return;
+        }
+
+        inTransaction(() -> {
+            for (String table : new String[] {"islands", "island_members", "island_bans", "island_scores", "island_score_blocks"}) {
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM " + table + " WHERE island_index = ?")) {
+                    for (Integer index : indexes) {
+                        delete.setInt(1, index);
+                        delete.addBatch();
+                    }
+                    delete.executeBatch();
+                }
+            }
+        });
+        indexes.forEach(savedScores::remove);
+    }
+
+    @Override
+    public synchronized void saveScores(List<IslandScoreRecord> records) throws IOException {
+        // Only scores that differ from the last saved or loaded score are written
+        List<IslandScoreRecord> changed = new ArrayList<>();
+        Set<Integer> listed = new HashSet<>();
+        for (IslandScoreRecord record : records) {
+            listed.add(record.getIndex());
+            if (!record.hasSameScore(savedScores.get(record.getIndex()))) {
+                changed.add(record);
+            }
+        }
+        List<Integer> removed = new ArrayList<>();
+        for (Integer index : savedScores.keySet()) {
+            if (!listed.contains(index)) {
+                removed.add(index);
+            }
+        }
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+
+        inTransaction(() -> {
+            try (PreparedStatement upsertScore = connection.prepareStatement("INSERT OR REPLACE INTO island_scores VALUES (?, ?, ?)");
+                    PreparedStatement deleteScore = connection.prepareStatement("DELETE FROM island_scores WHERE island_index = ?");
+                    PreparedStatement deleteBlocks = connection.prepareStatement("DELETE FROM island_score_blocks WHERE island_index = ?");
+                    PreparedStatement insertBlock = connection.prepareStatement("INSERT INTO island_score_blocks VALUES (?, ?, ?)")) {
+                for (IslandScoreRecord record : changed) {
+                    upsertScore.setInt(1, record.getIndex());
+                    upsertScore.setDouble(2, record.getScore());
+                    upsertScore.setLong(3, record.getScoredAt());
+                    upsertScore.addBatch();
+
+                    deleteBlocks.setInt(1, record.getIndex());
+                    deleteBlocks.addBatch();
+                    for (Map.Entry<String, Integer> entry : record.getBlockCounts().entrySet()) {
+                        insertBlock.setInt(1, record.getIndex());
+                        insertBlock.setString(2, entry.getKey());
+                        insertBlock.setInt(3, entry.getValue());
+                        insertBlock.addBatch();
+                    }
+                }
+                for (Integer index : removed) {
+                    deleteScore.setInt(1, index);
+                    deleteScore.addBatch();
+                    deleteBlocks.setInt(1, index);
+                    deleteBlocks.addBatch();
+                }
+
+                upsertScore.executeBatch();
+                deleteScore.executeBatch();
+                deleteBlocks.executeBatch();
+                insertBlock.executeBatch();
+            }
+        });
+
+        for (IslandScoreRecord record : changed) {
+            savedScores.put(record.getIndex(), record);
+        }
+        removed.forEach(savedScores::remove);
+    }
+
+    @Override
+    public synchronized boolean isEmpty() throws IOException {
+        try (Statement statement = connection.createStatement();
+                ResultSet rows = statement.executeQuery("SELECT 1 FROM islands LIMIT 1")) {
+            return !rows.next();
+        } catch (SQLException e) {
+            throw new IOException("Could not read islands", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warning("Failed to close the island database: " + e.getMessage());
+        }
+    }
+
+    ////////////////////////////////////////////
+    /// Helper methods
+    ////////////////////////////////////////////
+
+    /**
+     * Work done inside a database transaction
+     */
+    private interface Transaction {
+        void run() throws SQLException;
+    }
+
+    /**
+     * Run work in a transaction. The transaction is rolled back if the work fails.
+     * @param transaction
+     * @throws IOException
+     */
+    private void inTransaction(Transaction transaction) throws IOException {
+        try {
+            connection.setAutoCommit(false);
+            try {
+                transaction.run();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Island database transaction failed", e);
+        }
+    }
+
+    private static IslandLocation readLocation(ResultSet rows, String prefix) throws SQLException {
+        String world = rows.getString(prefix + "world");
+        if (world == null) {
+            return null;
+        }
+        return new IslandLocation(world, rows.getDouble(prefix + "x"), rows.getDouble(prefix + "y"), rows.getDouble(prefix + "z"),
+            rows.getFloat(prefix + "yaw"), rows.getFloat(prefix + "pitch"));
+    }
+
+    private static void writeLocation(PreparedStatement statement, int firstParameter, IslandLocation location) throws SQLException {
+        if (location == null) {
+            for (int i = 0; i < 6; i++) {
+                statement.setNull(firstParameter + i, i == 0 ? Types.VARCHAR : Types.REAL);
+            }
+            return;
+        }
+        statement.setString(firstParameter, location.getWorldName());
+        statement.setDouble(firstParameter + 1, location.getX());
+        statement.setDouble(firstParameter + 2, location.getY());
+        statement.setDouble(firstParameter + 3, location.getZ());
+        statement.setFloat(firstParameter + 4, location.getYaw());
+        statement.setFloat(firstParameter + 5, location.getPitch());
+    }
+}
@@ -0,0 +1,35 @@
+package dev.krutz.mc.skyblock;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+
+/**
+ * Reads and writes blocks of a live Bukkit world. Must be used on the main thread.
+ */
+public class WorldBlockAccess implements BlockSource, BlockSink {
+    private final World world;
+
+    public WorldBlockAccess(World world) {
+        this.world = world;
+    }
+
+    @Override
+    public int getMinHeight() {
+        return world.getMinHeight();
+    }
+
+    @Override
+    public int getMaxHeight() {
+        return world.getMaxHeight();
+    }
+
+    @Override
+    public Material getBlockType(int x, int y, int z) {
+        return world.getBlockAt(x, y, z).getType();
+    }
+
+    @Override
+    public void setBlockType(int x, int y, int z, Material type) {
+        world.getBlockAt(x, y, z).setType(type);
+    }
+}
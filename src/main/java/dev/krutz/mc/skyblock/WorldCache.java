@@ -0,0 +1,101 @@
+package dev.krutz.mc.skyblock;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/*
+ * A listener singleton class that caches worlds by name, so hot paths do not look worlds up
+ * with Bukkit.getWorld or compare world names. The cache is cleared when worlds load or unload.
+ */
+public class WorldCache implements Listener {
+    private static WorldCache instance;
+
+    // Cached worlds by name, worlds that are not loaded are not cached
+    private static final Map<String, World> WORLDS = new ConcurrentHashMap<>();
+
+    /**
+     * Get the instance of the WorldCache singleton.
+     * @return The WorldCache instance
+     */
+    public static synchronized WorldCache getInstance() {
+        // Create a new instance if it doesn't exist
+        if (instance == null) {
+            instance = new WorldCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Private constructor for the WorldCache singleton.
+     */
+    private WorldCache() {
+    }
+
+    /**
+     * Get a loaded world by name
+     * @param name
+     * @return World object or null if the world is not loaded
+     */
+    public static World getWorld(String name) {
+        World world = WORLDS.get(name);
+        if (world == null) {
+            world = Bukkit.getWorld(name);
+            if (world != null) {
+                WORLDS.put(name, world);
+            }
+        }
+        return world;
+    }
+
+    /**
+     * Get the skyblock world
+     * @return World object or null if the world is not loaded
+     */
+    public static World getSkyblockWorld() {
+        return getWorld(Main.skyblockWorldName);
+    }
+
+    /**
+     * Get the spawn world
+     * @return World object or null if the world is not loaded
+     */
+    public static World getSpawnWorld() {
+        return getWorld(Main.spawnWorldName);
+    }
+
+    /**
+     * Check if a world is the skyblock world
+     * @param world
+     * @return True if the world is the skyblock world
+     */
+    public static boolean isSkyblockWorld(World world) {
+        return world != null && world == getSkyblockWorld();
+    }
+
+    /**
+     * Check if a world is the spawn world
+     * @param world
+     * @return True if the world is the spawn world
+     */
+    public static boolean isSpawnWorld(World world) {
+        return world != null && world == getSpawnWorld();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        WORLDS.clear();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        WORLDS.clear();
+    }
+}
@@ -0,0 +1,108 @@
+package dev.krutz.mc.skyblock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the open addressing table, including probe runs that wrap around the end of the arrays.
+ */
+class ChunkIslandTableTest {
+
+    @Test
+    void putGetAndReplace() {
+        ChunkIslandTable table = new ChunkIslandTable();
+        long key = SkyblockUtil.chunkKey(3, -7);
+
+        assertEquals(ChunkIslandTable.NO_ISLAND, table.get(key));
+        table.put(key, 1);
+        table.put(key, 2);
+        assertEquals(2, table.get(key));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void removeOnlyRemovesTheGivenIsland() {
+        ChunkIslandTable table = new ChunkIslandTable();
+        long key = SkyblockUtil.chunkKey(0, 0);
+        table.put(key, 1);
+
+        table.remove(key, 2);
+        assertEquals(1, table.get(key));
+        table.remove(key, 1);
+        assertEquals(ChunkIslandTable.NO_ISLAND, table.get(key));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void probeRunWrapsAroundTheEnd() {
+        int lastSlot = ChunkIslandTable.INITIAL_CAPACITY - 1;
+        List<Long> lastSlotKeys = findKeys(lastSlot, 3); // Take the last slot, then slots 0 and 1
+        long firstSlotKey = findKeys(0, 1).get(0); // Its home slot is taken, it ends up in slot 2
+
+        ChunkIslandTable table = new ChunkIslandTable();
+        for (int i = 0; i < lastSlotKeys.size(); i++) {
+            table.put(lastSlotKeys.get(i), i);
+        }
+        table.put(firstSlotKey, 100);
+        for (int i = 0; i < lastSlotKeys.size(); i++) {
+            assertEquals(i, table.get(lastSlotKeys.get(i)));
+        }
+        assertEquals(100, table.get(firstSlotKey));
+
+        // Removing the head of the run shifts the wrapped entries back, none of them may get lost
+        table.remove(lastSlotKeys.get(0), 0);
+        assertEquals(ChunkIslandTable.NO_ISLAND, table.get(lastSlotKeys.get(0)));
+        assertEquals(1, table.get(lastSlotKeys.get(1)));
+        assertEquals(2, table.get(lastSlotKeys.get(2)));
+        assertEquals(100, table.get(firstSlotKey));
+
+        table.remove(firstSlotKey, 100);
+        assertEquals(1, table.get(lastSlotKeys.get(1)));
+        assertEquals(2, table.get(lastSlotKeys.get(2)));
+        assertEquals(ChunkIslandTable.NO_ISLAND, table.get(firstSlotKey));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void growsPastTheInitialCapacity() {
+        ChunkIslandTable table = new ChunkIslandTable();
+        int count = ChunkIslandTable.INITIAL_CAPACITY * 4;
+        for (int i = 0; i < count; i++) {
+            table.put(SkyblockUtil.chunkKey(i % 64, i / 64), i);
+        }
+        assertEquals(count, table.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, table.get(SkyblockUtil.chunkKey(i % 64, i / 64)));
+        }
+
+        for (int i = 0; i < count; i += 2) {
+            table.remove(SkyblockUtil.chunkKey(i % 64, i / 64), i);
+        }
+        for (int i = 0; i < count; i++) {
+            int expected = i % 2 == 0 ? ChunkIslandTable.NO_ISLAND : i;
+            assertEquals(expected, table.get(SkyblockUtil.chunkKey(i % 64, i / 64)));
+        }
+    }
+
+    /**
+     * Find chunk keys whose home slot in a table of the initial capacity is the given slot
+     * @param slot
+     * @param count
+     * @return Chunk keys
+     */
+    private static List<Long> findKeys(int slot, int count) {
+        int mask = ChunkIslandTable.INITIAL_CAPACITY - 1;
+        List<Long> keys = new ArrayList<>();
+        for (int chunkX = 0; keys.size() < count; chunkX++) {
+            long key = SkyblockUtil.chunkKey(chunkX, 0);
+            if ((ChunkIslandTable.hash(key) & mask) == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
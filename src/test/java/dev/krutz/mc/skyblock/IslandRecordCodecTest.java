@@ -0,0 +1,134 @@
+package dev.krutz.mc.skyblock;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Round trips of island records, scores and log frames through the binary codec.
+ */
+class IslandRecordCodecTest {
+
+    @Test
+    void roundTripsAFullRecord() throws IOException {
+        List<IslandFriend> friends = new ArrayList<>();
+        friends.add(new IslandFriend(UUID.randomUUID(), new ArrayList<>(List.of("build", "container"))));
+        friends.add(new IslandFriend(UUID.randomUUID()));
+        IslandRecord record = new IslandRecord(128, -256, "Tropical", 7, UUID.randomUUID(), friends,
+            List.of(UUID.randomUUID()), "Welcome", "Goodbye",
+            new IslandLocation("skyblock", 128.5, 70, -255.5, 90f, 10f),
+            new IslandLocation("skyblock_nether", 1, 2, 3, 0f, 0f), true, 0);
+
+        assertRecordEquals(record, roundTrip(record, null));
+        assertRecordEquals(record, roundTrip(record, new IslandRecordCodec.WorldNames()));
+    }
+
+    @Test
+    void roundTripsNullFields() throws IOException {
+        IslandRecord record = new IslandRecord(0, 0, null, 0, null, null, null, null, null,
+            new IslandLocation(null, 0, 64, 0, 0f, 0f), null, false, 0);
+
+        for (IslandRecordCodec.WorldNames worldNames : Arrays.asList(null, new IslandRecordCodec.WorldNames())) {
+            IslandRecord read = roundTrip(record, worldNames);
+            assertNull(read.getName());
+            assertNull(read.getOwnerUUID());
+            assertNull(read.getFriends());
+            assertNull(read.getBanList());
+            assertNull(read.getEnterMessage());
+            assertNull(read.getIslandWarp());
+            assertNull(read.getIslandSpawn().getWorldName());
+            assertRecordEquals(record, read);
+        }
+    }
+
+    @Test
+    void roundTripsAScore() throws IOException {
+        Map<String, Integer> blockCounts = new LinkedHashMap<>();
+        blockCounts.put("STONE", 4096);
+        blockCounts.put("DIAMOND_BLOCK", 3);
+        IslandScoreRecord record = new IslandScoreRecord(12, 4123.5, 1700000000000L, blockCounts);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        IslandRecordCodec.writeScore(new DataOutputStream(bytes), record);
+        IslandScoreRecord read = IslandRecordCodec.readScore(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertTrue(record.hasSameScore(read));
+    }
+
+    @Test
+    void detectsTornAndCorruptFrames() throws IOException {
+        byte[] payload = {1, 2, 3, 4, 5};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        IslandRecordCodec.writeFrame(new DataOutputStream(bytes), payload);
+        byte[] frame = bytes.toByteArray();
+
+        assertArrayEquals(payload, IslandRecordCodec.readFrame(new DataInputStream(new ByteArrayInputStream(frame))));
+
+        byte[] torn = Arrays.copyOf(frame, frame.length - 1);
+        assertThrows(EOFException.class, () -> IslandRecordCodec.readFrame(new DataInputStream(new ByteArrayInputStream(torn))));
+
+        byte[] corrupt = frame.clone();
+        corrupt[corrupt.length - 1] ^= 1;
+        assertThrows(IOException.class, () -> IslandRecordCodec.readFrame(new DataInputStream(new ByteArrayInputStream(corrupt))));
+    }
+
+    private static IslandRecord roundTrip(IslandRecord record, IslandRecordCodec.WorldNames worldNames) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        IslandRecordCodec.write(new DataOutputStream(bytes), record, worldNames);
+        return IslandRecordCodec.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), worldNames);
+    }
+
+    private static void assertRecordEquals(IslandRecord expected, IslandRecord actual) {
+        assertEquals(expected.getIndex(), actual.getIndex());
+        assertEquals(expected.getX(), actual.getX());
+        assertEquals(expected.getZ(), actual.getZ());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getOwnerUUID(), actual.getOwnerUUID());
+        assertEquals(expected.getBanList(), actual.getBanList());
+        assertEquals(expected.getEnterMessage(), actual.getEnterMessage());
+        assertEquals(expected.getExitMessage(), actual.getExitMessage());
+        assertEquals(expected.isLocked(), actual.isLocked());
+        assertLocationEquals(expected.getIslandSpawn(), actual.getIslandSpawn());
+        assertLocationEquals(expected.getIslandWarp(), actual.getIslandWarp());
+
+        if (expected.getFriends() == null) {
+            assertNull(actual.getFriends());
+            return;
+        }
+        assertEquals(expected.getFriends().size(), actual.getFriends().size());
+        for (int i = 0; i < expected.getFriends().size(); i++) {
+            assertEquals(expected.getFriends().get(i).getUUID(), actual.getFriends().get(i).getUUID());
+            assertEquals(expected.getFriends().get(i).getPermissions(), actual.getFriends().get(i).getPermissions());
+        }
+    }
+
+    private static void assertLocationEquals(IslandLocation expected, IslandLocation actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertEquals(expected.getWorldName(), actual.getWorldName());
+        assertEquals(expected.getX(), actual.getX());
+        assertEquals(expected.getY(), actual.getY());
+        assertEquals(expected.getZ(), actual.getZ());
+        assertEquals(expected.getYaw(), actual.getYaw());
+        assertEquals(expected.getPitch(), actual.getPitch());
+    }
+}
@@ -0,0 +1,135 @@
+package dev.krutz.mc.skyblock;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.bukkit.Material;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Scans of in-memory worlds, checked against a count of every block.
+ */
+class IslandScoreEngineTest {
+    private static final int MINIMUM_Y = -64;
+    private static final int MAXIMUM_Y = 320;
+    private static final Material[] MIXED_TYPES = { Material.AIR, Material.DIRT, Material.COBBLESTONE, Material.WATER, Material.DIAMOND_BLOCK };
+
+    private Island island;
+    private ArrayBlockWorld world;
+
+    @BeforeEach
+    void createWorld() {
+        Island.setBlockWeights(Map.of(Material.STONE, 1.0, Material.DIAMOND_BLOCK, 100.0, Material.WATER, 0.0));
+        island = new Island(new IslandRecord(0, 0, "test", 0, UUID.randomUUID(), null, null, null, null,
+            new IslandLocation("skyblock", 0, 100, 0, 0f, 0f), null, false, 0));
+        world = new ArrayBlockWorld(MINIMUM_Y, MAXIMUM_Y);
+
+        // Whole sections of a single block type, a partial layer, and scattered blocks above them
+        world.fill(-32, 0, -32, 31, 47, 31, Material.STONE);
+        world.fill(-32, 48, -32, 31, 52, 31, Material.DIRT);
+        world.fill(0, 64, 0, 15, 79, 15, Material.WATER);
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            int x = random.nextInt(96) - 48;
+            int y = random.nextInt(MAXIMUM_Y - 80) + 80;
+            int z = random.nextInt(96) - 48;
+            world.setBlockType(x, y, z, MIXED_TYPES[random.nextInt(MIXED_TYPES.length)]);
+        }
+    }
+
+    @AfterEach
+    void resetBlockWeights() {
+        Island.setBlockWeights(Map.of());
+    }
+
+    @Test
+    void uniformSectionsCountLikeEveryBlock() {
+        int[] expected = countEveryBlock(world, island.getScoreChunkKeys());
+
+        IslandScoreEngine.ScanResult result = IslandScoreEngine.scan(world, island.getScoreChunkKeys());
+
+        assertArrayEquals(expected, result.getBlockCounts());
+        assertEquals(IslandScoreEngine.score(expected), result.getScore(), 1e-6);
+        assertTrue(result.getSectionsUniform() > 0);
+    }
+
+    @Test
+    void sourcesWithoutSectionInfoCountTheSame() {
+        BlockSource plain = new BlockSource() {
+            @Override
+            public int getMinHeight() {
+                return world.getMinHeight();
+            }
+
+            @Override
+            public int getMaxHeight() {
+                return world.getMaxHeight();
+            }
+
+            @Override
+            public Material getBlockType(int x, int y, int z) {
+                return world.getBlockType(x, y, z);
+            }
+        };
+
+        IslandScoreEngine.ScanResult expected = IslandScoreEngine.scan(world, island.getScoreChunkKeys());
+        IslandScoreEngine.ScanResult result = IslandScoreEngine.scan(plain, island.getScoreChunkKeys());
+
+        assertArrayEquals(expected.getBlockCounts(), result.getBlockCounts());
+        assertEquals(expected.getScore(), result.getScore(), 1e-6);
+    }
+
+    @Test
+    void clearingLeavesOnlyAir() {
+        island.buildIsland(world);
+        island.clearIslandBlocks(world, world);
+
+        int[] counts = countEveryBlock(world, island.getScoreChunkKeys());
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+            assertEquals(0, counts[ordinal], Island.getMaterial(ordinal).name());
+        }
+        assertEquals(0, island.getScore());
+    }
+
+    @Test
+    void buildingScoresTheBuiltBlocks() {
+        ArrayBlockWorld empty = new ArrayBlockWorld(MINIMUM_Y, MAXIMUM_Y);
+        island.buildIsland(empty);
+
+        island.calculateScore(empty);
+
+        int[] expected = countEveryBlock(empty, island.getScoreChunkKeys());
+        assertTrue(expected[Material.BEDROCK.ordinal()] > 0);
+        assertEquals(IslandScoreEngine.score(expected), island.getScore(), 1e-6);
+    }
+
+    /**
+     * Count every non-air block of a set of chunks, one block at a time
+     * @param source
+     * @param chunkKeys
+     * @return Block counts indexed by Material.ordinal()
+     */
+    private static int[] countEveryBlock(BlockSource source, long[] chunkKeys) {
+        int[] counts = new int[Island.getMaterialCount()];
+        for (long chunkKey : chunkKeys) {
+            int minX = SkyblockUtil.chunkKeyX(chunkKey) * 16;
+            int minZ = SkyblockUtil.chunkKeyZ(chunkKey) * 16;
+            for (int y = source.getMinHeight(); y < source.getMaxHeight(); y++) {
+                for (int z = minZ; z < minZ + 16; z++) {
+                    for (int x = minX; x < minX + 16; x++) {
+                        counts[source.getBlockType(x, y, z).ordinal()]++;
+                    }
+                }
+            }
+        }
+        counts[Material.AIR.ordinal()] = 0;
+        return counts;
+    }
+}